@@ -0,0 +1,32 @@
+package cron.scheduler;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks and writes the results as JSON to track regressions between runs.
+ * <pre>
+ * java cron.scheduler.Benchmarks [include regex=.*Benchmark] [result file=jmh-result.json]
+ * </pre>
+ * The benchmarks can also be run by the JMH runner itself with any of its options, ie
+ * <pre>
+ * java org.openjdk.jmh.Main TimerBenchmark -prof gc -rf json -rff timer.json
+ * </pre>
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws Exception {
+        String include = args.length > 0 ? args[0] : ".*Benchmark";
+        String result = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                //the execution modes benchmark is a plain main, not a JMH benchmark
+                .exclude("ExecutionModesBenchmark")
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+    }
+}
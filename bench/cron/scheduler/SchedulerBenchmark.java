@@ -0,0 +1,103 @@
+package cron.scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of adding, starting and stopping all the jobs of a scheduler one by one through the API.
+ * <p>
+ * Each iteration is a single shot over all the jobs, the jobs are brought to the needed state before the iteration.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SchedulerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Jobs {
+        @Param({"1000", "100000", "1000000"})
+        public int jobs;
+
+        Scheduler scheduler;
+        String[] IDs;
+
+        @Setup(Level.Trial)
+        public void createScheduler() throws Exception {
+            scheduler = newScheduler();
+            IDs = new String[jobs];
+            for (int i = 0; i < jobs; i++) IDs[i] = "Job" + i;
+        }
+
+        void addAll() {
+            for (int i = 0; i < jobs; i++) scheduler.addJob(IDs[i], (i % 60) + " * * *", () -> {});
+        }
+    }
+
+    public static class EmptyJobs extends Jobs {
+        @Setup(Level.Iteration)
+        public void removeAll() {
+            scheduler.removeAll();
+        }
+    }
+
+    public static class AddedJobs extends Jobs {
+        @Setup(Level.Iteration)
+        public void addJobs() {
+            scheduler.removeAll();
+            addAll();
+        }
+    }
+
+    public static class StartedJobs extends Jobs {
+        @Setup(Level.Iteration)
+        public void startJobs() {
+            scheduler.removeAll();
+            addAll();
+            scheduler.startAll();
+        }
+    }
+
+    /**
+     * the scheduler is created from a daemon thread so its threads are daemons too and the forked VM can exit
+     */
+    static Scheduler newScheduler() throws Exception {
+        Scheduler[] scheduler = new Scheduler[1];
+        Thread creator = new Thread(() -> scheduler[0] = new Scheduler(new SchedulerConfig()));
+        creator.setDaemon(true);
+        creator.start();
+        creator.join();
+        return scheduler[0];
+    }
+
+    @Benchmark
+    public int addJob(EmptyJobs state) {
+        state.addAll();
+        return state.scheduler.numOfTotalJobs();
+    }
+
+    @Benchmark
+    public int startJob(AddedJobs state) {
+        for (String ID : state.IDs) state.scheduler.startJob(ID);
+        return state.scheduler.numOfScheduledJobs();
+    }
+
+    @Benchmark
+    public int stopJob(StartedJobs state) {
+        for (String ID : state.IDs) state.scheduler.stopJob(ID);
+        return state.scheduler.numOfScheduledJobs();
+    }
+}
@@ -0,0 +1,53 @@
+package cron.scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to simulate a year of monthly jobs spread over the days and the times of the day,
+ * each iteration builds a new simulation so the year starts with all the jobs started.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({"100000"})
+    public int jobs;
+
+    private SchedulerSimulation simulation;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setup() throws Exception {
+        SchedulerConfig config = new SchedulerConfig().setClock(Clock.system(ZoneOffset.UTC)).setShards(4);
+        simulation = new SchedulerSimulation(config, Instant.parse("2025-01-01T00:00:00Z"), jobID -> false);
+        Scheduler scheduler = simulation.getScheduler();
+        for (int i = 0; i < jobs; i++)
+            scheduler.addJob("Job" + i, (i % 60) + " " + (i % 24) + " " + (i % 28 + 1) + " *", () -> {});
+        scheduler.startAll();
+    }
+
+    @Benchmark
+    public long year() {
+        simulation.runFor(Duration.ofDays(365));
+        return simulation.getFireLog().getTotalFires();
+    }
+}
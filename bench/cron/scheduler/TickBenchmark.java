@@ -0,0 +1,71 @@
+package cron.scheduler;
+
+import cron.scheduler.execution.PlatformJobExecutor;
+import cron.scheduler.execution.RejectionPolicy;
+import cron.scheduler.job.Job;
+import cron.scheduler.metrics.SchedulerMetrics;
+import cron.scheduler.store.JobStoreType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Cost of one tick of a shard where all its jobs are due at once:
+ * polling the due jobs from the store, rescheduling them and submitting them to the pool.
+ * <p>
+ * The shard thread isn't started, the benchmark ticks the shard itself one second after the other.
+ * The per job INFO log is turned off, as it would measure the console instead of the scheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark {
+
+    @Param({"10000"})
+    public int jobs;
+
+    @Param({"PRIORITY_QUEUE", "TIMING_WHEEL"})
+    public JobStoreType jobStoreType;
+
+    private SchedulerShard shard;
+    private PlatformJobExecutor pool;
+    private long now;
+
+    @Setup
+    public void setup() throws Exception {
+        Logger.getLogger(Scheduler.class.getName()).setLevel(java.util.logging.Level.WARNING);
+        pool = new PlatformJobExecutor(4, jobs, RejectionPolicy.BLOCK);
+        Clock clock = Clock.systemUTC();
+        now = clock.millis() / 1000 * 1000;
+        shard = new SchedulerShard(0, jobStoreType.create(now), pool, Long.MAX_VALUE, null, new SchedulerMetrics(),
+                clock);
+        for (int i = 0; i < jobs; i++) shard.startJob(new Job("Job" + i, "* * * * * *", () -> {}));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void tick() {
+        now += 1000;
+        shard.runDueJobs(now);
+    }
+}
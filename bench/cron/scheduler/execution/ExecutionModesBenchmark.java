@@ -0,0 +1,59 @@
+package cron.scheduler.execution;
+
+import cron.scheduler.job.Job;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares the platform pool with virtual threads when many blocking jobs fire in the same minute.
+ * <p>
+ * Each job sleeps to simulate blocking I/O, all jobs are submitted at once as the scheduler does in one tick
+ * and the time till the last job finishes is measured.
+ * <pre>
+ * java cron.scheduler.execution.ExecutionModesBenchmark [jobs=50000] [blockingMillis=20] [poolSize=64]
+ * </pre>
+ */
+public class ExecutionModesBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int blockingMillis = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        System.out.println("mode,jobs,blockingMillis,totalMillis,jobsPerSecond,peakThreads");
+        run("platform-" + poolSize, new PlatformJobExecutor(poolSize, jobs, RejectionPolicy.BLOCK), jobs, blockingMillis);
+        if (!VirtualThreadJobExecutor.isSupported()) {
+            System.out.println("virtual,skipped: virtual threads need Java 21 or later");
+            return;
+        }
+        run("virtual", new VirtualThreadJobExecutor(0), jobs, blockingMillis);
+        run("virtual-limit-" + poolSize * 16, new VirtualThreadJobExecutor(poolSize * 16), jobs, blockingMillis);
+    }
+
+    private static void run(String mode, JobExecutor executor, int jobs, int blockingMillis) throws Exception {
+        CountDownLatch done = new CountDownLatch(jobs);
+        List<Job> fired = new ArrayList<>(jobs);
+        for (int i = 0; i < jobs; i++) {
+            fired.add(new Job(String.valueOf(i), "* * * *", () -> {
+                try {
+                    Thread.sleep(blockingMillis);
+                } catch (InterruptedException ignored) {
+                }
+                done.countDown();
+            }));
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long start = System.nanoTime();
+        for (Job job : fired) executor.submit(job);
+        done.await();
+        long totalMillis = (System.nanoTime() - start) / 1_000_000;
+        executor.shutdown();
+        System.out.println(mode + "," + jobs + "," + blockingMillis + "," + totalMillis + "," +
+                (jobs * 1000L / Math.max(1, totalMillis)) + "," + threads.getPeakThreadCount());
+    }
+}
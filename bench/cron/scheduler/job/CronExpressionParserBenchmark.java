@@ -0,0 +1,55 @@
+package cron.scheduler.job;
+
+import cron.scheduler.time.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of parsing cron expressions of different shapes,
+ * both through the timer cache as jobs are added and compiling the fields without it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CronExpressionParserBenchmark {
+
+    @Param({
+            "* * * *",
+            "0 0 1 1",
+            "0/15 9-17 * 1-6",
+            "0,5,10,15,20,25,30,35,40,45,50,55 0-23/2 1-20/2 *",
+            "0/10 * * * * *"
+    })
+    public String expression;
+
+    private String[] fields;
+
+    @Setup
+    public void setup() {
+        fields = expression.trim().split("\\s+");
+    }
+
+    @Benchmark
+    public Timer parseCached() throws Exception {
+        return CronExpressionParser.parse(expression);
+    }
+
+    @Benchmark
+    public Timer compile() throws Exception {
+        return CronExpressionParser.compile(fields);
+    }
+}
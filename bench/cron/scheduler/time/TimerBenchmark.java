@@ -0,0 +1,72 @@
+package cron.scheduler.time;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of finding the next execution time, from an absolute time as the scheduler does
+ * and from the fields of a time [the search itself without the conversion to a calendar time].
+ * <p>
+ * Run with -prof gc to get the allocation rate, the field search should not allocate at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerBenchmark {
+
+    /**
+     * every minute, yearly, business hours and a sparse schedule that carries over many fields
+     */
+    @Param({"EVERY_MINUTE", "YEARLY", "BUSINESS_HOURS", "SPARSE"})
+    public String schedule;
+
+    private Timer timer;
+    private long epochMillis;
+    private int step;
+
+    @Setup
+    public void setup() throws Exception {
+        switch (schedule) {
+            case "EVERY_MINUTE":
+                timer = new Timer(-1L >>> 4, (1 << 24) - 1, -2, (short) 0x1FFE);
+                break;
+            case "YEARLY":
+                timer = new Timer(1L, 1, 1 << 1, (short) (1 << 1));
+                break;
+            case "BUSINESS_HOURS":
+                timer = new Timer(1L | 1L << 15 | 1L << 30 | 1L << 45, 0x3FE00, -2, (short) 0x1FFE);
+                break;
+            case "SPARSE":
+            default:
+                timer = new Timer(1L << 59, 1 << 23, 1 << 31, (short) (1 << 12));
+        }
+        epochMillis = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long fromEpochMillis() {
+        //a different minute each call, so the result isn't the same
+        step = (step + 1) & 1023;
+        return timer.getNextExecutionTime(epochMillis + step * 60_000L);
+    }
+
+    @Benchmark
+    public int fromFields() {
+        step = (step + 1) & 1023;
+        return timer.getNextExecutionTime(1 + step % 12, 1 + step % 31, step % 24, step % 60);
+    }
+}
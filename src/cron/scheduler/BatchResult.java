@@ -0,0 +1,64 @@
+package cron.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Batch result reports the outcome of each item of a batch call, in the same order of the batch.
+ */
+public class BatchResult {
+    private final List<Item> items = new ArrayList<>();
+    private int failed;
+
+    void succeeded(String ID) {
+        items.add(new Item(ID, null));
+    }
+
+    void failed(String ID, String error) {
+        items.add(new Item(ID, error));
+        failed++;
+    }
+
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    public int numOfSucceeded() {
+        return items.size() - failed;
+    }
+
+    public int numOfFailed() {
+        return failed;
+    }
+
+    public static class Item {
+        private final String ID;
+        private final String error;
+
+        Item(String ID, String error) {
+            this.ID = ID;
+            this.error = error;
+        }
+
+        public String getID() {
+            return ID;
+        }
+
+        public boolean isSucceeded() {
+            return error == null;
+        }
+
+        /**
+         * @return why the item failed, null if it succeeded
+         */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return ID + (error == null ? ": succeeded" : ": " + error);
+        }
+    }
+}
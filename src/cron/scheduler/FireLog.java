@@ -0,0 +1,118 @@
+package cron.scheduler;
+
+import cron.scheduler.metrics.Histogram;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Fire log records the jobs fired by a {@link SchedulerSimulation} for assertions and capacity analysis.
+ * <p>
+ * Every fire is counted per job and per tick, while only the fires of the logged jobs are kept one by one
+ * in primitive arrays, so a year of 100k jobs can be counted without keeping its fires.
+ * The kept fires are (time, job ID) pairs like the projection of {@link Scheduler#upcomingFires},
+ * so a simulated log can be compared with the projection of the same window.
+ */
+public class FireLog {
+    private final Predicate<String> loggedJobs;
+    private final HashMap<String, long[]> firesByJob = new HashMap<>();
+    private final Histogram firesPerTick = new Histogram();
+    private long[] times = new long[16];
+    private String[] jobIDs = new String[16];
+    private int size;
+    private long totalFires;
+    private long ticks;
+    private int peakFires;
+    private long peakTime;
+
+    /**
+     * @param loggedJobs IDs of the jobs whose fires are kept one by one
+     */
+    FireLog(Predicate<String> loggedJobs) {
+        this.loggedJobs = loggedJobs;
+    }
+
+    synchronized void recordFire(long epochMillis, String jobID) {
+        totalFires++;
+        firesByJob.computeIfAbsent(jobID, ID -> new long[1])[0]++;
+        if (!loggedJobs.test(jobID)) return;
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            jobIDs = Arrays.copyOf(jobIDs, size * 2);
+        }
+        times[size] = epochMillis;
+        jobIDs[size++] = jobID;
+    }
+
+    synchronized void recordTick(long epochMillis, int fires) {
+        ticks++;
+        firesPerTick.record(fires);
+        if (fires > peakFires) {
+            peakFires = fires;
+            peakTime = epochMillis;
+        }
+    }
+
+    /**
+     * @return the fires of the logged jobs in the order they were fired
+     */
+    public synchronized List<UpcomingFire> getFires() {
+        long[] times = Arrays.copyOf(this.times, size);
+        String[] jobIDs = Arrays.copyOf(this.jobIDs, size);
+        return new AbstractList<UpcomingFire>() {
+            @Override
+            public UpcomingFire get(int index) {
+                return new UpcomingFire(Instant.ofEpochMilli(times[index]), jobIDs[index]);
+            }
+
+            @Override
+            public int size() {
+                return times.length;
+            }
+        };
+    }
+
+    /**
+     * @return number of times the job was fired, logged or not
+     */
+    public synchronized long numOfFires(String jobID) {
+        long[] fires = firesByJob.get(jobID);
+        return fires == null ? 0 : fires[0];
+    }
+
+    public synchronized long getTotalFires() {
+        return totalFires;
+    }
+
+    /**
+     * @return number of times the shards were polled for due jobs
+     */
+    public synchronized long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return histogram of the number of jobs fired at each tick
+     */
+    public Histogram getFiresPerTick() {
+        return firesPerTick;
+    }
+
+    /**
+     * @return the largest number of jobs fired at the same tick
+     */
+    public synchronized int getPeakFiresPerTick() {
+        return peakFires;
+    }
+
+    /**
+     * @return the first time the largest number of jobs were fired at, null if nothing was fired
+     */
+    public synchronized Instant getPeakTime() {
+        return peakFires == 0 ? null : Instant.ofEpochMilli(peakTime);
+    }
+}
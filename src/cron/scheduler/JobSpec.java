@@ -0,0 +1,40 @@
+package cron.scheduler;
+
+import cron.scheduler.job.OverlapPolicy;
+
+/**
+ * Job spec describes a job to be added in a batch through {@link Scheduler#addJobs}.
+ */
+public class JobSpec {
+    private final String ID;
+    private final String cronExpression;
+    private final Runnable function;
+    private final OverlapPolicy overlapPolicy;
+
+    public JobSpec(String ID, String cronExpression, Runnable function) {
+        this(ID, cronExpression, function, OverlapPolicy.ALLOW_PARALLEL);
+    }
+
+    public JobSpec(String ID, String cronExpression, Runnable function, OverlapPolicy overlapPolicy) {
+        this.ID = ID;
+        this.cronExpression = cronExpression;
+        this.function = function;
+        this.overlapPolicy = overlapPolicy;
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public Runnable getFunction() {
+        return function;
+    }
+
+    public OverlapPolicy getOverlapPolicy() {
+        return overlapPolicy;
+    }
+}
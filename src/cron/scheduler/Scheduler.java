@@ -1,29 +1,238 @@
 package cron.scheduler;
 
+import cron.scheduler.cluster.ClusterNode;
+import cron.scheduler.execution.JobExecutor;
+import cron.scheduler.execution.PlatformJobExecutor;
+import cron.scheduler.execution.VirtualThreadJobExecutor;
 import cron.scheduler.job.Job;
+import cron.scheduler.job.JobState;
+import cron.scheduler.job.MisfirePolicy;
+import cron.scheduler.job.OverlapPolicy;
+import cron.scheduler.job.TriggerPolicy;
+import cron.scheduler.metrics.Histogram;
+import cron.scheduler.metrics.SchedulerMXBean;
+import cron.scheduler.metrics.SchedulerMetrics;
+import cron.scheduler.persistence.JobPersistence;
+import cron.scheduler.persistence.JobRecord;
+import cron.scheduler.persistence.JobTypeFactory;
+import cron.scheduler.time.ZonePolicy;
 
-import java.time.LocalDateTime;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.PriorityQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Scheduler implements Runnable {
-    private final PriorityQueue<Job> jobsQueue;
-    private final HashMap<String, Job> idMap;
-    private final ExecutorService pool;
+/**
+ * Scheduler keeps the jobs by their IDs and routes the started jobs to its shards.
+ * <p>
+ * Each shard has its own job store and thread, a job always belongs to the shard of its ID hash,
+ * so with many shards the work of each minute is split over many cores.
+ * <p>
+ * The jobs are kept in a concurrent map and each job changes its own state atomically,
+ * so the API can be called from many threads at once without a global lock.
+ * Calls changing the same job lock this job only, so its shard can't change in the middle of the call.
+ * <p>
+ * With a {@link JobPersistence} configured, the jobs added with a job type are persisted with each change
+ * and recovered when the scheduler is created, their runnables are created again by the factories of their types.
+ * <p>
+ * With a {@link ClusterNode} configured, every node schedules all the jobs but fires only the jobs of the partitions it holds.
+ * <p>
+ * Jobs can depend on other jobs, a job is fired by the successful executions of its upstream jobs
+ * as soon as the last of them finishes instead of waiting for its next execution time,
+ * the worker that ran it queues the job to its shard so the worker never waits for a full executor.
+ * The dependencies are changed under a single lock that rejects a dependency making a cycle.
+ * <p>
+ * The metrics of the scheduler are exported as a JMX MBean and can be pulled through {@link #getMetrics()}.
+ * <p>
+ * {@link #close()} stops the scheduler and releases what it holds [threads, persistence and MBean].
+ */
+public class Scheduler implements AutoCloseable {
+    private final SchedulerShard[] shards;
+    private final ConcurrentHashMap<String, Job> idMap;
+    private final JobExecutor pool;
+    private final JobPersistence persistence;
+    private final ClusterNode clusterNode;
+    private final Map<String, JobTypeFactory> jobTypes;
     private static Scheduler singleton;
+    private static final AtomicInteger instances = new AtomicInteger();
+    private final SchedulerMetrics metrics;
+    private final SchedulerMXBean monitor;
+    private final Clock clock;
+    //lock of the changes of the dependencies between the jobs
+    private final Object dependencies;
+    //the name the MBean is registered with, null if the registration failed
+    private volatile ObjectName mBeanName;
+    private final AtomicBoolean closed;
     private final Logger logger;
 
-    private Scheduler() {
-        this.jobsQueue = new PriorityQueue<>();
-        this.idMap = new HashMap<>();
-        this.pool = Executors.newCachedThreadPool();
+    Scheduler(SchedulerConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * @param executor the executor of the fired jobs, null to create it from the config.
+     *                 a scheduler created with an executor is driven by the caller through {@link #shards()},
+     *                 its shard threads and cluster node aren't started
+     */
+    Scheduler(SchedulerConfig config, JobExecutor executor) {
+        this.idMap = new ConcurrentHashMap<>();
         this.logger = Logger.getLogger(Scheduler.class.getName());
-        new Thread(this).start();
+        this.clock = config.getClock();
+        this.dependencies = new Object();
+        this.closed = new AtomicBoolean();
+        this.pool = executor != null ? executor : createExecutor(config);
+        this.persistence = config.getPersistence();
+        this.clusterNode = config.getClusterNode();
+        this.jobTypes = new HashMap<>(config.getJobTypes());
+        this.metrics = new SchedulerMetrics();
+        this.monitor = new SchedulerMonitor(this);
+        this.shards = new SchedulerShard[config.getShards()];
+        for (int i = 0; i < shards.length; i++)
+            shards[i] = new SchedulerShard(i, config.getJobStoreType().create(clock.millis()), pool,
+                    config.getMisfireThreshold(), config.getClusterNode(), metrics, clock);
+        if (executor == null) {
+            if (clusterNode != null) {
+                clusterNode.setClock(clock);
+                clusterNode.start();
+            }
+            for (SchedulerShard shard : shards) shard.start();
+        }
+        registerMBean(config.getMBeanName());
+        if (persistence != null) recover();
+    }
+
+    /**
+     * register the metrics as an MBean, a failure is logged as the scheduler works without it
+     */
+    private void registerMBean(String name) {
+        if (name == null) name = "cron.scheduler:type=Scheduler,name=scheduler-" + instances.getAndIncrement();
+        try {
+            ObjectName objectName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, objectName);
+            mBeanName = objectName;
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to register the scheduler MBean " + name + ", " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop the scheduler, the shard threads stop firing and the executor stops accepting jobs [running jobs finish],
+     * then the persistence writes its last changes and the MBean is unregistered.
+     * a node of a cluster leaves it, so the other nodes take its partitions without waiting for its leases to expire.
+     * a closed scheduler shouldn't be used anymore, closing it again does nothing.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        for (SchedulerShard shard : shards) shard.stop();
+        if (clusterNode != null) clusterNode.leave();
+        pool.shutdown();
+        if (persistence != null) persistence.close();
+        ObjectName name = mBeanName;
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to unregister the scheduler MBean " + name + ", " + e.getMessage());
+            }
+        }
+        synchronized (Scheduler.class) {
+            if (singleton == this) singleton = null;
+        }
+    }
+
+    /**
+     * rebuild the persisted jobs, the jobs are created in parallel and the started ones are started in one batch
+     */
+    private void recover() {
+        long start = System.currentTimeMillis();
+        List<JobRecord> records = new ArrayList<>(persistence.getRecords());
+        Object[] created = records.parallelStream().map(record -> {
+            try {
+                Job job = createJob(record.getID(), record.getCronExpression(), record.getJobType(),
+                        record.getJobData(), record.getOverlapPolicy());
+                job.setMisfirePolicy(record.getMisfirePolicy());
+                job.changeZone(record.getZonePolicy());
+                return job;
+            } catch (Exception e) {
+                return e.getMessage();
+            }
+        }).toArray();
+        List<Job> started = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (created[i] instanceof String) {
+                logger.log(Level.SEVERE, "Failed to recover job with ID:" + records.get(i).getID() + ", " + created[i]);
+                continue;
+            }
+            Job job = (Job) created[i];
+            bind(job);
+            idMap.put(job.getID(), job);
+            if (records.get(i).isStarted()) started.add(job);
+        }
+        startJobs(started);
+        logger.log(Level.INFO, "Recovered " + idMap.size() + " jobs in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * give the job the clock, the metrics and the trigger of the downstream jobs of this scheduler
+     */
+    private void bind(Job job) {
+        job.setClock(clock);
+        job.setMetrics(metrics);
+        job.setDownstreamTrigger(this::trigger);
+    }
+
+    private Job createJob(String ID, String cronExpression, String jobType, String jobData,
+                          OverlapPolicy overlapPolicy) throws Exception {
+        JobTypeFactory factory = jobTypes.get(jobType);
+        if (factory == null) throw new Exception("Unknown job type: " + jobType);
+        Job job = new Job(ID, cronExpression, factory.create(jobData), overlapPolicy);
+        job.setJobType(jobType, jobData);
+        return job;
+    }
+
+    private boolean isPersisted(Job job) {
+        return persistence != null && job.getJobType() != null;
+    }
+
+    private JobRecord toRecord(Job job) {
+        return new JobRecord(job.getID(), job.getCronExpression(), job.getJobType(), job.getJobData(),
+                job.getOverlapPolicy(), job.getMisfirePolicy(), job.getZonePolicy(), job.getState().isStarted());
+    }
+
+    SchedulerShard[] shards() {
+        return shards;
+    }
+
+    SchedulerShard shardOf(String jobID) {
+        return shards[Math.floorMod(jobID.hashCode(), shards.length)];
+    }
+
+    private JobExecutor createExecutor(SchedulerConfig config) {
+        if (config.isVirtualThreads()) {
+            if (VirtualThreadJobExecutor.isSupported())
+                return new VirtualThreadJobExecutor(config.getVirtualThreadsLimit());
+            logger.log(Level.WARNING, "Virtual threads are not supported by this runtime, using the pool instead");
+        }
+        return new PlatformJobExecutor(config.getPoolSize(), config.getQueueCapacity(), config.getRejectionPolicy());
     }
 
     /**
@@ -34,7 +243,18 @@ public class Scheduler implements Runnable {
      * @return singleton instance
      */
     public static synchronized Scheduler getInstance() {
-        if (singleton == null) singleton = new Scheduler();
+        return getInstance(new SchedulerConfig());
+    }
+
+    /**
+     * Same as {@link #getInstance()} but creates the instance with the given config.
+     * the config is ignored if the instance already exists.
+     *
+     * @param config configuration of the scheduler
+     * @return singleton instance
+     */
+    public static synchronized Scheduler getInstance(SchedulerConfig config) {
+        if (singleton == null) singleton = new Scheduler(config);
         return singleton;
     }
 
@@ -47,18 +267,80 @@ public class Scheduler implements Runnable {
      * @return true if added successfully, false if not.
      */
     public boolean addJob(String ID, String cronExpression, Runnable function) {
-        synchronized (idMap) {
-            if (idMap.containsKey(ID)) {
-                logger.log(Level.WARNING, "A job with same ID:" + ID + " already exists");
-                return false;
-            }
-            try {
-                Job job = new Job(ID, cronExpression, function);
-                idMap.put(ID, job);
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, e.getMessage());
+        return addJob(ID, cronExpression, function, OverlapPolicy.ALLOW_PARALLEL);
+    }
+
+    /**
+     * Create a job without a schedule, once started it's fired only by the jobs it depends on.
+     *
+     * @param ID       job id
+     * @param function runnable object
+     * @return true if added successfully, false if not.
+     * @see #addDependency(String, String)
+     */
+    public boolean addJob(String ID, Runnable function) {
+        if (idMap.containsKey(ID)) {
+            logger.log(Level.WARNING, "A job with same ID:" + ID + " already exists");
+            return false;
+        }
+        return addJob(new Job(ID, function, OverlapPolicy.ALLOW_PARALLEL));
+    }
+
+    /**
+     * Same as {@link #addJob(String, String, Runnable)} with a policy for the overlapping executions of the job.
+     *
+     * @param overlapPolicy what to do if the job is fired while it's still running
+     * @return true if added successfully, false if not.
+     */
+    public boolean addJob(String ID, String cronExpression, Runnable function, OverlapPolicy overlapPolicy) {
+        if (idMap.containsKey(ID)) {
+            logger.log(Level.WARNING, "A job with same ID:" + ID + " already exists");
+            return false;
+        }
+        Job job;
+        try {
+            job = new Job(ID, cronExpression, function, overlapPolicy);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, e.getMessage());
+            return false;
+        }
+        return addJob(job);
+    }
+
+    /**
+     * Create a job of a registered job type, its runnable is created by the factory of the type from the given data.
+     * the job is persisted if the scheduler has a persistence.
+     *
+     * @param ID             job id
+     * @param cronExpression string expression on the form Min Hour Day Month
+     * @param jobType        type registered through {@link SchedulerConfig#registerJobType}
+     * @param jobData        data to create the runnable from
+     * @return true if added successfully, false if not.
+     */
+    public boolean addJob(String ID, String cronExpression, String jobType, String jobData) {
+        if (idMap.containsKey(ID)) {
+            logger.log(Level.WARNING, "A job with same ID:" + ID + " already exists");
+            return false;
+        }
+        Job job;
+        try {
+            job = createJob(ID, cronExpression, jobType, jobData, OverlapPolicy.ALLOW_PARALLEL);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, e.getMessage());
+            return false;
+        }
+        return addJob(job);
+    }
+
+    private boolean addJob(Job job) {
+        bind(job);
+        //the job is locked till it's persisted, so its start can't be persisted before it
+        synchronized (job) {
+            if (idMap.putIfAbsent(job.getID(), job) != null) {
+                logger.log(Level.WARNING, "A job with same ID:" + job.getID() + " already exists");
                 return false;
             }
+            if (isPersisted(job)) persistence.save(toRecord(job));
             return true;
         }
     }
@@ -70,20 +352,118 @@ public class Scheduler implements Runnable {
      * @return true if started successfully, false if not.
      */
     public boolean startJob(String jobID) {
-        if (!idMap.containsKey(jobID)) {
-            logger.log(Level.WARNING, "Job with ID:" + jobID + " not exists");
-            return false;
-        }
-        Job job = idMap.get(jobID);
-        synchronized (jobsQueue) {
-            if (jobsQueue.contains(job)) return false;
-            jobsQueue.add(job);
+        Job job = getJob(jobID);
+        if (job == null) return false;
+        return startJob(job);
+    }
+
+    private boolean startJob(Job job) {
+        synchronized (job) {
+            if (!shardOf(job.getID()).startJob(job)) return false;
+            if (isPersisted(job)) persistence.start(job.getID());
             return true;
         }
     }
 
     public void startAll() {
-        for (String id : this.idMap.keySet()) startJob(id);
+        List<Job> jobs = new ArrayList<>(this.idMap.values());
+        persistStarts(jobs, startJobs(jobs));
+    }
+
+    /**
+     * persist the jobs started in a batch, unless they're stopped meanwhile [then their stop is persisted instead]
+     */
+    private void persistStarts(List<Job> jobs, boolean[] started) {
+        if (persistence == null) return;
+        for (int i = 0; i < jobs.size(); i++) {
+            Job job = jobs.get(i);
+            if (!started[i] || !isPersisted(job)) continue;
+            synchronized (job) {
+                if (job.getState().isStarted()) persistence.start(job.getID());
+            }
+        }
+    }
+
+    /**
+     * Add many jobs at once, the cron expressions are parsed in parallel then the jobs are added one by one.
+     * the batch isn't all or nothing, a job with an invalid expression or a duplicate ID [in the batch or in the scheduler]
+     * fails alone and the other jobs are still added.
+     *
+     * @param specs jobs to be added
+     * @return result of each job in the same order of the specs
+     */
+    public BatchResult addJobs(Collection<JobSpec> specs) {
+        List<JobSpec> list = new ArrayList<>(specs);
+        Object[] parsed = list.parallelStream().map(spec -> {
+            try {
+                Job job = new Job(spec.getID(), spec.getCronExpression(), spec.getFunction(), spec.getOverlapPolicy());
+                bind(job);
+                return job;
+            } catch (Exception e) {
+                return e.getMessage();
+            }
+        }).toArray();
+        BatchResult result = new BatchResult();
+        HashSet<String> batchIDs = new HashSet<>();
+        for (int i = 0; i < list.size(); i++) {
+            String ID = list.get(i).getID();
+            if (!batchIDs.add(ID)) result.failed(ID, "Duplicate ID in the batch");
+            else if (parsed[i] instanceof String) result.failed(ID, (String) parsed[i]);
+            else if (idMap.putIfAbsent(ID, (Job) parsed[i]) != null)
+                result.failed(ID, "A job with same ID already exists");
+            else result.succeeded(ID);
+        }
+        return result;
+    }
+
+    /**
+     * Start many jobs at once, the jobs of each shard are added to its store in one pass
+     * instead of adding them one by one.
+     *
+     * @param jobIDs IDs of the jobs to be started
+     * @return result of each job in the same order of the IDs
+     */
+    public BatchResult startJobs(Collection<String> jobIDs) {
+        ArrayList<Job> jobs = new ArrayList<>(jobIDs.size());
+        for (String jobID : jobIDs) jobs.add(idMap.get(jobID));
+        boolean[] started = startJobs(jobs);
+        persistStarts(jobs, started);
+        BatchResult result = new BatchResult();
+        int i = 0;
+        for (String jobID : jobIDs) {
+            if (jobs.get(i) == null) result.failed(jobID, "Job not exists");
+            else if (started[i]) result.succeeded(jobID);
+            else result.failed(jobID, "Job is already started or removed");
+            i++;
+        }
+        return result;
+    }
+
+    /**
+     * group the jobs by their shards and start each group in one pass
+     *
+     * @return for each job if it's started, null jobs are skipped
+     */
+    private boolean[] startJobs(List<Job> jobs) {
+        HashMap<SchedulerShard, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            if (jobs.get(i) == null) continue;
+            groups.computeIfAbsent(shardOf(jobs.get(i).getID()), shard -> new ArrayList<>()).add(i);
+        }
+        boolean[] started = new boolean[jobs.size()];
+        for (SchedulerShard shard : groups.keySet()) {
+            List<Integer> indices = groups.get(shard);
+            List<Job> group = new ArrayList<>(indices.size());
+            for (int i : indices) group.add(jobs.get(i));
+            boolean[] groupStarted = shard.startJobs(group, this);
+            for (int j = 0; j < indices.size(); j++) {
+                int i = indices.get(j);
+                //the job moved to another shard meanwhile
+                if (!groupStarted[j] && shardOf(jobs.get(i).getID()) != shard) started[i] = startJob(jobs.get(i));
+                else started[i] = groupStarted[j];
+            }
+        }
+        return started;
     }
 
     /**
@@ -93,20 +473,25 @@ public class Scheduler implements Runnable {
      * @return true if removed successfully, false if not.
      */
     public boolean removeJob(String jobID) {
-        synchronized (idMap) {
-            if (!idMap.containsKey(jobID)) {
-                logger.log(Level.WARNING, "Job with ID:" + jobID + " not exists");
-                return false;
-            }
-            stopJob(jobID);
-            idMap.remove(jobID);
-            return true;
+        Job job = idMap.remove(jobID);
+        if (job == null) {
+            logger.log(Level.WARNING, "Job with ID:" + jobID + " not exists");
+            return false;
         }
+        synchronized (job) {
+            shardOf(job.getID()).removeJob(job);
+            if (isPersisted(job)) persistence.remove(job.getID());
+        }
+        //the downstream jobs of a removed job don't wait for it anymore
+        synchronized (dependencies) {
+            for (Job upstream : job.getUpstreams()) job.removeUpstream(upstream);
+            for (Job downstream : job.getDownstreams()) downstream.removeUpstream(job);
+        }
+        return true;
     }
 
     public void removeAll() {
-        stopAll();
-        this.idMap.clear();
+        for (Job job : this.idMap.values()) removeJob(job.getID());
     }
 
     /**
@@ -116,18 +501,20 @@ public class Scheduler implements Runnable {
      * @return true if stopped successfully, false if not.
      */
     public boolean stopJob(String jobID) {
-        if (!idMap.containsKey(jobID)) {
-            logger.log(Level.WARNING, "Job with ID:" + jobID + " not exists");
-            return false;
-        }
-        synchronized (jobsQueue) {
-            jobsQueue.remove(idMap.get(jobID));
-        }
+        Job job = getJob(jobID);
+        if (job == null) return false;
+        stopJob(job);
         return true;
     }
 
+    private void stopJob(Job job) {
+        synchronized (job) {
+            if (shardOf(job.getID()).stopJob(job) && isPersisted(job)) persistence.stop(job.getID());
+        }
+    }
+
     public void stopAll() {
-        this.jobsQueue.clear();
+        for (Job job : this.idMap.values()) stopJob(job);
     }
 
     /**
@@ -138,12 +525,13 @@ public class Scheduler implements Runnable {
      * @return true if successfully changed, false otherwise
      */
     public boolean changeJobSchedule(String jobID, String cronExpression) {
-        if (!idMap.containsKey(jobID)) {
-            logger.log(Level.WARNING, "Job with ID:" + jobID + " not exists");
-            return false;
-        }
+        Job job = getJob(jobID);
+        if (job == null) return false;
         try {
-            idMap.get(jobID).changeSchedule(cronExpression);
+            synchronized (job) {
+                shardOf(job.getID()).changeJobSchedule(job, cronExpression);
+                if (isPersisted(job)) persistence.reschedule(job.getID(), cronExpression);
+            }
             return true;
         } catch (Exception e) {
             logger.log(Level.SEVERE, e.getMessage());
@@ -159,80 +547,317 @@ public class Scheduler implements Runnable {
      * @return true if successfully changed, false otherwise
      */
     public boolean changeID(String jobID, String newID) {
-        synchronized (idMap) {
-            if (!idMap.containsKey(jobID)) {
+        Job job = getJob(jobID);
+        if (job == null) return false;
+        synchronized (job) {
+            if (idMap.putIfAbsent(newID, job) != null) {
+                logger.log(Level.WARNING, "A job with same ID:" + newID + " already exists");
+                return false;
+            }
+            if (!idMap.remove(jobID, job)) {
+                //the job is removed or renamed meanwhile
+                idMap.remove(newID, job);
                 logger.log(Level.WARNING, "Job with ID:" + jobID + " not exists");
                 return false;
             }
-            Job job = idMap.get(jobID);
-            idMap.remove(jobID);
-            job.setID(newID);
-            idMap.put(newID, job);
+            //the new ID may belong to another shard
+            boolean scheduled = shardOf(jobID).detachJob(job, newID);
+            if (scheduled) shardOf(newID).attachJob(job);
+            if (isPersisted(job)) persistence.rename(jobID, newID);
             return true;
         }
     }
 
     /**
      * change the function of a job.
+     * the function isn't persisted, a persisted job gets the runnable of its type again after a restart.
      *
      * @param jobID    id of the job to change the id
      * @param function the new runnable to be assigned to the job
      * @return true if successfully changed, false otherwise
      */
     public boolean changeFunction(String jobID, Runnable function) {
-        if (!idMap.containsKey(jobID)) {
-            logger.log(Level.WARNING, "Job with ID:" + jobID + " not exists");
+        Job job = getJob(jobID);
+        if (job == null) return false;
+        job.setFunction(function);
+        return true;
+    }
+
+    /**
+     * change what to do when the job is fired too late after its execution time.
+     *
+     * @param jobID         id of the job to change the policy
+     * @param misfirePolicy the new misfire policy of the job
+     * @return true if successfully changed, false otherwise
+     */
+    public boolean changeMisfirePolicy(String jobID, MisfirePolicy misfirePolicy) {
+        Job job = getJob(jobID);
+        if (job == null) return false;
+        synchronized (job) {
+            job.setMisfirePolicy(misfirePolicy);
+            if (isPersisted(job)) persistence.save(toRecord(job));
+        }
+        return true;
+    }
+
+    /**
+     * change the time zone the cron expression of the job is read in,
+     * with what to do with its execution times skipped or repeated by the daylight saving transitions of the zone.
+     *
+     * @param jobID      id of the job to change the zone
+     * @param zonePolicy the zone and its gap and overlap policies
+     * @return true if successfully changed, false otherwise
+     */
+    public boolean changeZone(String jobID, ZonePolicy zonePolicy) {
+        Job job = getJob(jobID);
+        if (job == null) return false;
+        synchronized (job) {
+            shardOf(job.getID()).changeJobZone(job, zonePolicy);
+            if (isPersisted(job)) persistence.save(toRecord(job));
+        }
+        return true;
+    }
+
+    /**
+     * Make a job depend on another job, the job is fired once all its upstream jobs succeeded
+     * according to its trigger policy [only by its upstream jobs unless changed].
+     * a dependency making a cycle is rejected, as the jobs of the cycle would wait for each other forever.
+     * the dependencies aren't persisted, so a persisted job can't depend on other jobs
+     * [it would fire by its own schedule after a restart].
+     *
+     * @param jobID      id of the downstream job
+     * @param upstreamID id of the job it waits for
+     * @return true if the dependency is added or already exists, false otherwise
+     */
+    public boolean addDependency(String jobID, String upstreamID) {
+        Job job = getJob(jobID);
+        Job upstream = getJob(upstreamID);
+        if (job == null || upstream == null) return false;
+        if (isPersisted(job)) {
+            logger.log(Level.WARNING, "Job with ID:" + jobID + " is persisted, it can't depend on other jobs");
             return false;
         }
-        idMap.get(jobID).setFunction(function);
+        synchronized (dependencies) {
+            //the jobs may get removed meanwhile
+            if (idMap.get(jobID) != job || idMap.get(upstreamID) != upstream) return false;
+            if (dependsOn(upstream, job)) {
+                logger.log(Level.WARNING, "Dependency of job with ID:" + jobID + " on job with ID:" + upstreamID +
+                        " makes a cycle");
+                return false;
+            }
+            job.addUpstream(upstream);
+            return true;
+        }
+    }
+
+    /**
+     * search the upstream jobs of the job breadth first for the other job, the job itself is included
+     */
+    private static boolean dependsOn(Job job, Job other) {
+        Set<Job> visited = new HashSet<>();
+        ArrayDeque<Job> queue = new ArrayDeque<>();
+        queue.add(job);
+        while (!queue.isEmpty()) {
+            Job next = queue.poll();
+            if (next == other) return true;
+            for (Job upstream : next.getUpstreams()) if (visited.add(upstream)) queue.add(upstream);
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the dependency is removed, false if it doesn't exist
+     */
+    public boolean removeDependency(String jobID, String upstreamID) {
+        Job job = getJob(jobID);
+        Job upstream = getJob(upstreamID);
+        if (job == null || upstream == null) return false;
+        synchronized (dependencies) {
+            if (!job.getUpstreams().contains(upstream)) return false;
+            job.removeUpstream(upstream);
+            return true;
+        }
+    }
+
+    /**
+     * @return IDs of the jobs the job depends on, null if there is no job with this ID
+     */
+    public List<String> getUpstreamJobs(String jobID) {
+        Job job = idMap.get(jobID);
+        if (job == null) return null;
+        List<String> IDs = new ArrayList<>();
+        for (Job upstream : job.getUpstreams()) IDs.add(upstream.getID());
+        return IDs;
+    }
+
+    /**
+     * change how the job is fired by its upstream jobs and its schedule.
+     *
+     * @param jobID         id of the job to change the policy
+     * @param triggerPolicy the new trigger policy of the job
+     * @return true if successfully changed, false otherwise
+     */
+    public boolean changeTriggerPolicy(String jobID, TriggerPolicy triggerPolicy) {
+        Job job = getJob(jobID);
+        if (job == null) return false;
+        job.setTriggerPolicy(triggerPolicy);
         return true;
     }
 
+    /**
+     * fire a job whose upstream jobs succeeded, it's queued to its shard as the worker that ran the last of them
+     * can't wait for a full executor
+     */
+    private void trigger(Job job) {
+        shardOf(job.getID()).trigger(job);
+    }
+
+    /**
+     * @return the state of the job, null if there is no job with this ID
+     */
+    public JobState getJobState(String jobID) {
+        Job job = idMap.get(jobID);
+        return job == null ? null : job.getState();
+    }
+
+    Job getJob(String jobID) {
+        Job job = idMap.get(jobID);
+        if (job == null) logger.log(Level.WARNING, "Job with ID:" + jobID + " not exists");
+        return job;
+    }
+
+    /**
+     * Project the fires of the started jobs in the given window in time order, ie what fires in the next 6 hours.
+     * the jobs fired only by their upstream jobs aren't projected, as their fires depend on the upstream executions.
+     * <p>
+     * The fires are merged lazily from the schedule of each job as the stream is consumed,
+     * so the memory is proportional to the number of jobs and a large window can be paged by limiting the stream.
+     * The schedules are taken when the stream is created, later changes of the jobs don't apply to it.
+     *
+     * @param from start of the window, included
+     * @param to   end of the window, excluded
+     * @return stream of the fire times and the IDs of the jobs fired at them
+     */
+    public Stream<UpcomingFire> upcomingFires(Instant from, Instant to) {
+        List<UpcomingFires.Cursor> cursors = new ArrayList<>();
+        for (Job job : idMap.values())
+            if (job.getState().isStarted() && job.firesOnSchedule()) cursors.add(new UpcomingFires.Cursor(job.getID(), job.getTimer(), job.getZonePolicy()));
+        UpcomingFires fires = new UpcomingFires(cursors, from.toEpochMilli(), to.toEpochMilli());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(fires,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+
+    /**
+     * Same as {@link #upcomingFires(Instant, Instant)} for the given duration from now.
+     */
+    public Stream<UpcomingFire> upcomingFires(Duration window) {
+        Instant now = clock.instant();
+        return upcomingFires(now, now.plus(window));
+    }
+
+    /**
+     * @return the metrics of the scheduler, the same ones exported over JMX
+     */
+    public SchedulerMXBean getMetrics() {
+        return monitor;
+    }
+
+    SchedulerMetrics getRecordedMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return histogram of the execution times of the job in microseconds, null if it doesn't exist or never ran
+     */
+    public Histogram getJobExecutionTime(String jobID) {
+        Job job = idMap.get(jobID);
+        return job == null ? null : job.getExecutionTime();
+    }
+
+    /**
+     * @return number of failed executions of the job, -1 if there is no job with this ID
+     */
+    public long numOfJobFailures(String jobID) {
+        Job job = idMap.get(jobID);
+        return job == null ? -1 : job.getFailures();
+    }
+
+    /**
+     * @return number of fired jobs waiting for a free thread
+     */
+    public int numOfQueuedJobs() {
+        return pool.getQueueSize();
+    }
+
+    /**
+     * @return number of jobs running now
+     */
+    public int numOfRunningJobs() {
+        return pool.getActiveThreads();
+    }
+
     public int numOfTotalJobs() {
         return idMap.size();
     }
 
     public int numOfScheduledJobs() {
-        return jobsQueue.size();
+        int scheduled = 0;
+        for (SchedulerShard shard : shards) scheduled += shard.numOfScheduledJobs();
+        return scheduled;
     }
 
+    /**
+     * @return number of times the shard threads woke up, an idle scheduler only wakes up for changes
+     */
+    public long numOfWakeups() {
+        long wakeups = 0;
+        for (SchedulerShard shard : shards) wakeups += shard.numOfWakeups();
+        return wakeups;
+    }
 
-    @Override
-    public void run() {
-        while (true) {
-            try {
-                //wait till the beginning of the next minute
-                long millisWithinSecond = System.currentTimeMillis() % 1000;
-                long secondsWithinMinute = LocalDateTime.MAX.getSecond() - LocalDateTime.now().getSecond();
-                Thread.sleep((1000 - millisWithinSecond) + secondsWithinMinute * 1000);
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, e.getMessage());
-            }
-            runNextJob();
-        }
+    /**
+     * @return the longest time in milliseconds the shard threads took to fire the jobs after they were due
+     */
+    public long maxFiringDelayMillis() {
+        long delay = 0;
+        for (SchedulerShard shard : shards) delay = Math.max(delay, shard.maxFiringDelayMillis());
+        return delay;
     }
 
-    private void runNextJob() {
-        if (jobsQueue.isEmpty()) return;
-        //get all jobs of next time = 0
-        ArrayList<Job> jobsToInvoke = new ArrayList<>();
-        updateTheQ();
-        while (!jobsQueue.isEmpty() && jobsQueue.peek().getNextTime() == 0) {
-            Job job = jobsQueue.poll();
-            jobsToInvoke.add(job);
-        }
-        for (Job job : jobsToInvoke) {
-            logger.log(Level.INFO, "Executing job with ID: " + job.getID());
-            this.pool.submit(job);
-            jobsQueue.add(job);
-        }
+    /**
+     * @return number of times the jobs were fired later than the misfire threshold
+     */
+    public long numOfMisfires() {
+        return metrics.getMisfires();
+    }
+
+    /**
+     * @return the longest time in milliseconds a misfired job was fired after its execution time
+     */
+    public long maxMisfireLatenessMillis() {
+        long lateness = 0;
+        for (SchedulerShard shard : shards) lateness = Math.max(lateness, shard.maxMisfireLatenessMillis());
+        return lateness;
+    }
+
+    /**
+     * @return number of executions dropped because their jobs were still running
+     */
+    public long numOfSkippedExecutions() {
+        return metrics.getSkippedExecutions();
+    }
+
+    /**
+     * @return number of executions that waited for the running executions of their jobs
+     */
+    public long numOfQueuedExecutions() {
+        return metrics.getQueuedExecutions();
     }
 
     /**
-     * re-sort the priority queue
+     * @return number of fired jobs rejected by the pool as all its threads were busy and its queue was full
      */
-    private void updateTheQ() {
-        if (this.jobsQueue.isEmpty()) return;
-        this.jobsQueue.add(this.jobsQueue.poll());
+    public long numOfRejectedExecutions() {
+        return pool.getRejectedJobs();
     }
 }
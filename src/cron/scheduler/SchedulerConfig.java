@@ -0,0 +1,221 @@
+package cron.scheduler;
+
+import cron.scheduler.cluster.ClusterNode;
+import cron.scheduler.execution.RejectionPolicy;
+import cron.scheduler.persistence.JobPersistence;
+import cron.scheduler.persistence.JobTypeFactory;
+import cron.scheduler.store.JobStoreType;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the scheduler, every setter returns the config itself to allow chaining.
+ * <pre>
+ * Scheduler.getInstance(new SchedulerConfig().setJobStoreType(JobStoreType.PRIORITY_QUEUE));
+ * </pre>
+ */
+public class SchedulerConfig {
+    private JobStoreType jobStoreType = JobStoreType.TIMING_WHEEL;
+    private int poolSize = 64;
+    private int queueCapacity = 10_000;
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.BLOCK;
+    private boolean virtualThreads = false;
+    private int virtualThreadsLimit = 0;
+    private int shards = 1;
+    private long misfireThreshold = 1000;
+    private JobPersistence persistence;
+    private ClusterNode clusterNode;
+    private String mBeanName;
+    private Clock clock = Clock.systemDefaultZone();
+    private final Map<String, JobTypeFactory> jobTypes = new HashMap<>();
+
+    public SchedulerConfig() {
+    }
+
+    /**
+     * copy the given config, the copy shares its persistence, cluster node and job type factories
+     */
+    public SchedulerConfig(SchedulerConfig config) {
+        this.jobStoreType = config.jobStoreType;
+        this.poolSize = config.poolSize;
+        this.queueCapacity = config.queueCapacity;
+        this.rejectionPolicy = config.rejectionPolicy;
+        this.virtualThreads = config.virtualThreads;
+        this.virtualThreadsLimit = config.virtualThreadsLimit;
+        this.shards = config.shards;
+        this.misfireThreshold = config.misfireThreshold;
+        this.persistence = config.persistence;
+        this.clusterNode = config.clusterNode;
+        this.mBeanName = config.mBeanName;
+        this.clock = config.clock;
+        this.jobTypes.putAll(config.jobTypes);
+    }
+
+    public JobStoreType getJobStoreType() {
+        return jobStoreType;
+    }
+
+    public SchedulerConfig setJobStoreType(JobStoreType jobStoreType) {
+        this.jobStoreType = jobStoreType;
+        return this;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @param poolSize maximum number of threads running the jobs
+     */
+    public SchedulerConfig setPoolSize(int poolSize) {
+        if (poolSize < 1) throw new IllegalArgumentException("Pool size should be positive: " + poolSize);
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @param queueCapacity maximum number of fired jobs waiting for a free thread
+     */
+    public SchedulerConfig setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) throw new IllegalArgumentException("Queue capacity should be positive: " + queueCapacity);
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * @param rejectionPolicy what to do with a fired job when the pool and its queue are full
+     */
+    public SchedulerConfig setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+        return this;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @param virtualThreads run each fired job on a virtual thread instead of the pool [Java 21+],
+     *                       the pool is used on older runtimes
+     */
+    public SchedulerConfig setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public int getVirtualThreadsLimit() {
+        return virtualThreadsLimit;
+    }
+
+    /**
+     * @param virtualThreadsLimit maximum number of jobs running on virtual threads at the same time, 0 for no limit
+     */
+    public SchedulerConfig setVirtualThreadsLimit(int virtualThreadsLimit) {
+        if (virtualThreadsLimit < 0)
+            throw new IllegalArgumentException("Virtual threads limit should not be negative: " + virtualThreadsLimit);
+        this.virtualThreadsLimit = virtualThreadsLimit;
+        return this;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * @param shards number of scheduler threads, each one has its own job store and fires its own part of the jobs
+     */
+    public SchedulerConfig setShards(int shards) {
+        if (shards < 1) throw new IllegalArgumentException("Number of shards should be positive: " + shards);
+        this.shards = shards;
+        return this;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * @param clock the clock the jobs are scheduled and fired by, the system clock by default.
+     *              the scheduler threads wait in real time, a clock not moving with it is driven by
+     *              a {@link SchedulerSimulation} instead
+     */
+    public SchedulerConfig setClock(Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    public long getMisfireThreshold() {
+        return misfireThreshold;
+    }
+
+    /**
+     * @param misfireThreshold milliseconds a job can be fired after its execution time before it's considered a misfire
+     */
+    public SchedulerConfig setMisfireThreshold(long misfireThreshold) {
+        if (misfireThreshold < 0)
+            throw new IllegalArgumentException("Misfire threshold should not be negative: " + misfireThreshold);
+        this.misfireThreshold = misfireThreshold;
+        return this;
+    }
+
+    public JobPersistence getPersistence() {
+        return persistence;
+    }
+
+    /**
+     * @param persistence where the jobs added with a job type are kept across restarts, null to keep them in memory only
+     */
+    public SchedulerConfig setPersistence(JobPersistence persistence) {
+        this.persistence = persistence;
+        return this;
+    }
+
+    public ClusterNode getClusterNode() {
+        return clusterNode;
+    }
+
+    /**
+     * @param clusterNode the node of this scheduler when the same jobs are scheduled on many nodes,
+     *                    each job is fired only by the node holding the lease of its partition. null to fire all jobs
+     */
+    public SchedulerConfig setClusterNode(ClusterNode clusterNode) {
+        this.clusterNode = clusterNode;
+        return this;
+    }
+
+    public String getMBeanName() {
+        return mBeanName;
+    }
+
+    /**
+     * @param mBeanName JMX object name the metrics are registered with,
+     *                  by default cron.scheduler:type=Scheduler,name=scheduler-N for the N-th scheduler
+     */
+    public SchedulerConfig setMBeanName(String mBeanName) {
+        this.mBeanName = mBeanName;
+        return this;
+    }
+
+    public Map<String, JobTypeFactory> getJobTypes() {
+        return jobTypes;
+    }
+
+    /**
+     * @param jobType name of the type used when adding the jobs
+     * @param factory creates the runnable of a job of this type from its data, also for the recovered jobs
+     */
+    public SchedulerConfig registerJobType(String jobType, JobTypeFactory factory) {
+        jobTypes.put(jobType, factory);
+        return this;
+    }
+}
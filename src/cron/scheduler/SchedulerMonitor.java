@@ -0,0 +1,132 @@
+package cron.scheduler;
+
+import cron.scheduler.metrics.Histogram;
+import cron.scheduler.metrics.SchedulerMXBean;
+import cron.scheduler.metrics.SchedulerMetrics;
+
+/**
+ * JMX view of the metrics of a scheduler, every attribute is read from the scheduler when it's pulled.
+ */
+class SchedulerMonitor implements SchedulerMXBean {
+    private final Scheduler scheduler;
+
+    SchedulerMonitor(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    private SchedulerMetrics metrics() {
+        return scheduler.getRecordedMetrics();
+    }
+
+    @Override
+    public int getTotalJobs() {
+        return scheduler.numOfTotalJobs();
+    }
+
+    @Override
+    public int getScheduledJobs() {
+        return scheduler.numOfScheduledJobs();
+    }
+
+    @Override
+    public long getExecutions() {
+        return metrics().getExecutionTime().getCount();
+    }
+
+    @Override
+    public long getFailures() {
+        return metrics().getFailures();
+    }
+
+    @Override
+    public double getExecutionTimeMean() {
+        return metrics().getExecutionTime().getMean();
+    }
+
+    @Override
+    public long getExecutionTimeP50() {
+        return metrics().getExecutionTime().getPercentile(0.5);
+    }
+
+    @Override
+    public long getExecutionTimeP99() {
+        return metrics().getExecutionTime().getPercentile(0.99);
+    }
+
+    @Override
+    public long getExecutionTimeMax() {
+        return metrics().getExecutionTime().getMax();
+    }
+
+    @Override
+    public long getFireLatenessP50Millis() {
+        return metrics().getFireLateness().getPercentile(0.5);
+    }
+
+    @Override
+    public long getFireLatenessP99Millis() {
+        return metrics().getFireLateness().getPercentile(0.99);
+    }
+
+    @Override
+    public long getFireLatenessMaxMillis() {
+        return metrics().getFireLateness().getMax();
+    }
+
+    @Override
+    public long getTickDurationP99() {
+        return metrics().getTickDuration().getPercentile(0.99);
+    }
+
+    @Override
+    public long getTickDurationMax() {
+        return metrics().getTickDuration().getMax();
+    }
+
+    @Override
+    public double getJobsPerTickMean() {
+        return metrics().getJobsPerTick().getMean();
+    }
+
+    @Override
+    public long getJobsPerTickMax() {
+        return metrics().getJobsPerTick().getMax();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return scheduler.numOfQueuedJobs();
+    }
+
+    @Override
+    public int getActiveThreads() {
+        return scheduler.numOfRunningJobs();
+    }
+
+    @Override
+    public long getRejectedExecutions() {
+        return scheduler.numOfRejectedExecutions();
+    }
+
+    @Override
+    public long getMisfires() {
+        return scheduler.numOfMisfires();
+    }
+
+    @Override
+    public long getWakeups() {
+        return scheduler.numOfWakeups();
+    }
+
+    @Override
+    public long getJobExecutionTimePercentile(String jobID, double quantile) {
+        if (scheduler.getJobState(jobID) == null) return -1;
+        Histogram executionTime = scheduler.getJobExecutionTime(jobID);
+        return executionTime == null ? 0 : executionTime.getPercentile(quantile);
+    }
+
+    @Override
+    public long getJobFailures(String jobID) {
+        return scheduler.numOfJobFailures(jobID);
+    }
+}
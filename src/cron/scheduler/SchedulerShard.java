@@ -0,0 +1,391 @@
+package cron.scheduler;
+
+import cron.scheduler.cluster.ClusterNode;
+import cron.scheduler.events.JobDispatchEvent;
+import cron.scheduler.events.TickEvent;
+import cron.scheduler.execution.JobExecutor;
+import cron.scheduler.job.Job;
+import cron.scheduler.job.JobState;
+import cron.scheduler.metrics.SchedulerMetrics;
+import cron.scheduler.store.JobStore;
+import cron.scheduler.time.ZonePolicy;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Scheduler shard owns a part of the started jobs in its own job store
+ * and runs its own thread that fires the due jobs of this part.
+ * <p>
+ * Jobs are assigned to the shards by the scheduler according to their IDs,
+ * so shards never share jobs and don't need to synchronize with each other.
+ * <p>
+ * The state of a job changes together with its presence in the store under the lock of the store,
+ * so a started job is always in the store of its shard and a stopped job is never.
+ * <p>
+ * The thread parks until the nearest execution time of its store instead of waking up every minute,
+ * a change that makes a job due before this deadline unparks the thread to recompute it.
+ * The park is measured by the monotonic clock and every deadline is absolute,
+ * so a slow round of firing delays only that round instead of drifting the following ones.
+ * <p>
+ * A job fired later than the misfire threshold after the time it was due at [the thread was stalled or paused]
+ * is a misfire, it's logged with its due time and handled according to the misfire policy of the job.
+ * <p>
+ * A job depending on upstream jobs is fired by its schedule according to its trigger policy.
+ * The fires by the upstream jobs are queued by the workers and dispatched by the thread,
+ * so a worker never blocks on a full executor waiting for the other workers.
+ * A started job without a schedule isn't kept in the store, as it's fired only by its upstream jobs.
+ * <p>
+ * Each round of firing is recorded as a {@link TickEvent} and each submitted job as a {@link JobDispatchEvent}
+ * when a flight recording is running.
+ */
+class SchedulerShard implements Runnable {
+    private static final long MAX_PARK_MILLIS = 60 * 60_000;
+
+    private final int index;
+    private final JobStore jobStore;
+    private final JobExecutor pool;
+    private final Logger logger;
+    private final Thread thread;
+    private final long misfireThreshold;
+    private final ClusterNode clusterNode;
+    private final SchedulerMetrics metrics;
+    private final Clock clock;
+    private final AtomicLong wakeups;
+    private final AtomicLong maxFiringDelay;
+    private final AtomicLong maxMisfireLateness;
+    //jobs fired by their upstream jobs, waiting to be dispatched by the thread
+    private final ConcurrentLinkedQueue<Job> triggeredJobs;
+    //the time the thread is parked till, only changed under the lock of the store
+    private volatile long deadline;
+    private volatile boolean running;
+
+    SchedulerShard(int index, JobStore jobStore, JobExecutor pool, long misfireThreshold,
+                   ClusterNode clusterNode, SchedulerMetrics metrics, Clock clock) {
+        this.index = index;
+        this.jobStore = jobStore;
+        this.pool = pool;
+        this.logger = Logger.getLogger(Scheduler.class.getName());
+        this.thread = new Thread(this, "cron-scheduler-" + index);
+        this.wakeups = new AtomicLong();
+        this.maxFiringDelay = new AtomicLong();
+        this.maxMisfireLateness = new AtomicLong();
+        this.triggeredJobs = new ConcurrentLinkedQueue<>();
+        this.misfireThreshold = misfireThreshold;
+        this.clusterNode = clusterNode;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.deadline = Long.MAX_VALUE;
+        this.running = true;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * stop the thread after its current round of firing, the jobs stay in the store
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * start scheduling the job from the current time
+     *
+     * @return false if the job is already started or removed
+     */
+    boolean startJob(Job job) {
+        synchronized (jobStore) {
+            if (!job.changeState(JobState.ADDED, JobState.SCHEDULED) &&
+                    !job.changeState(JobState.STOPPED, JobState.SCHEDULED)) return false;
+            job.scheduleAfter(clock.millis());
+            if (!job.hasSchedule()) return true;
+            if (!jobStore.add(job)) return false;
+            wakeUpBefore(job.getNextExecutionTime());
+            return true;
+        }
+    }
+
+    /**
+     * start many jobs at once, the next execution times are computed in parallel
+     * and the jobs are added to the store in one pass.
+     * jobs that moved to another shard meanwhile are not started here.
+     *
+     * @return for each job if it's started
+     */
+    boolean[] startJobs(List<Job> jobs, Scheduler scheduler) {
+        boolean[] started = new boolean[jobs.size()];
+        ArrayList<Job> toAdd = new ArrayList<>(jobs.size());
+        long now = clock.millis();
+        synchronized (jobStore) {
+            for (int i = 0; i < jobs.size(); i++) {
+                Job job = jobs.get(i);
+                if (scheduler.shardOf(job.getID()) != this) continue;
+                if (!job.changeState(JobState.ADDED, JobState.SCHEDULED) &&
+                        !job.changeState(JobState.STOPPED, JobState.SCHEDULED)) continue;
+                started[i] = true;
+                if (job.hasSchedule()) toAdd.add(job);
+            }
+            toAdd.parallelStream().forEach(job -> job.scheduleAfter(now));
+            jobStore.addAll(toAdd);
+            wakeUpBefore(jobStore.nextExecutionTime());
+        }
+        return started;
+    }
+
+    /**
+     * @return false if the job isn't started
+     */
+    boolean stopJob(Job job) {
+        synchronized (jobStore) {
+            if (!job.stop()) return false;
+            jobStore.remove(job);
+            return true;
+        }
+    }
+
+    void removeJob(Job job) {
+        synchronized (jobStore) {
+            jobStore.remove(job);
+            job.remove();
+        }
+    }
+
+    /**
+     * take the job out of this shard without changing its state, as it's moving to the shard of its new ID.
+     * the ID is changed under the lock so a batch start can't add the job here after it's taken out.
+     *
+     * @return true if the job was in this shard
+     */
+    boolean detachJob(Job job, String newID) {
+        synchronized (jobStore) {
+            job.setID(newID);
+            return jobStore.remove(job);
+        }
+    }
+
+    /**
+     * add a job detached from another shard, unless it's stopped while moving
+     */
+    void attachJob(Job job) {
+        synchronized (jobStore) {
+            if (job.getState().isStarted() && job.hasSchedule() && jobStore.add(job))
+                wakeUpBefore(job.getNextExecutionTime());
+        }
+    }
+
+    /**
+     * change the schedule of the job, the job is taken out of the store while its next execution time changes.
+     * a started job without a schedule is added to the store once it gets one.
+     */
+    void changeJobSchedule(Job job, String cronExpression) throws Exception {
+        synchronized (jobStore) {
+            jobStore.remove(job);
+            try {
+                job.changeSchedule(cronExpression);
+            } finally {
+                if (job.getState().isStarted() && job.hasSchedule() && jobStore.add(job))
+                    wakeUpBefore(job.getNextExecutionTime());
+            }
+        }
+    }
+
+    /**
+     * change the zone of the job, the job is taken out of the store while its next execution time changes
+     */
+    void changeJobZone(Job job, ZonePolicy zonePolicy) {
+        synchronized (jobStore) {
+            boolean scheduled = jobStore.remove(job);
+            job.changeZone(zonePolicy);
+            if (scheduled && jobStore.add(job)) wakeUpBefore(job.getNextExecutionTime());
+        }
+    }
+
+    /**
+     * @return the time the thread would wake up at to fire the nearest due jobs
+     */
+    long nextExecutionTime() {
+        synchronized (jobStore) {
+            return jobStore.nextExecutionTime();
+        }
+    }
+
+    int numOfScheduledJobs() {
+        synchronized (jobStore) {
+            return jobStore.size();
+        }
+    }
+
+    /**
+     * @return number of times the thread woke up, either at a deadline or unparked by a change
+     */
+    long numOfWakeups() {
+        return wakeups.get();
+    }
+
+    /**
+     * @return true if the thread is parked waiting for its deadline
+     */
+    boolean isParked() {
+        return thread.getState() == Thread.State.TIMED_WAITING;
+    }
+
+    /**
+     * @return the longest time in milliseconds between a deadline and firing its due jobs
+     */
+    long maxFiringDelayMillis() {
+        return maxFiringDelay.get();
+    }
+
+    /**
+     * @return the longest time in milliseconds a misfired job was fired after the time it was due at
+     */
+    long maxMisfireLatenessMillis() {
+        return maxMisfireLateness.get();
+    }
+
+    /**
+     * queue a job fired by its upstream jobs and wake the thread up to dispatch it,
+     * called by the worker that ran the last of them.
+     */
+    void trigger(Job job) {
+        triggeredJobs.add(job);
+        synchronized (jobStore) {
+            wakeUpBefore(clock.millis());
+        }
+    }
+
+    /**
+     * unpark the thread if it's parked till after the given time, must be called under the lock of the store.
+     * if the thread isn't parked yet the permit makes its next park return immediately.
+     */
+    private void wakeUpBefore(long time) {
+        if (time >= deadline) return;
+        deadline = time;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            long now = clock.millis();
+            runTriggeredJobs(now);
+            long next;
+            boolean triggered;
+            synchronized (jobStore) {
+                next = jobStore.nextExecutionTime();
+                //a job triggered meanwhile is dispatched in the next round without parking
+                triggered = !triggeredJobs.isEmpty();
+                deadline = triggered ? now : next;
+            }
+            if (next > now) {
+                if (triggered) continue;
+                park(next, Math.min(next - now, MAX_PARK_MILLIS));
+                wakeups.incrementAndGet();
+                continue;
+            }
+            maxFiringDelay.accumulateAndGet(now - next, Math::max);
+            runDueJobs(now);
+        }
+    }
+
+    /**
+     * park till the given time passes on the monotonic clock, or the deadline is moved earlier by a change.
+     * the park is limited so a change of the wall clock is caught up within an hour.
+     * early returns of the park are parked again, so they don't count as wakeups.
+     */
+    private void park(long next, long millis) {
+        long parkUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining;
+        while ((remaining = parkUntil - System.nanoTime()) > 0 && deadline == next && running)
+            LockSupport.parkNanos(this, remaining);
+    }
+
+    /**
+     * fire the jobs due at the given time
+     */
+    void runDueJobs(long now) {
+        TickEvent tick = new TickEvent();
+        tick.begin();
+        long start = System.nanoTime();
+        List<Job> jobsToInvoke;
+        synchronized (jobStore) {
+            jobsToInvoke = jobStore.pollDueJobs(now);
+        }
+        long polled = System.nanoTime();
+        int dispatched = 0;
+        for (Job job : jobsToInvoke) {
+            //the job may get stopped after it's taken from the store
+            if (!job.getState().isStarted()) continue;
+            //another node of the cluster fires this job
+            if (clusterNode != null && !clusterNode.owns(job.getID(), job.getDueTime())) continue;
+            //a job fired only by its upstream jobs keeps its schedule without firing on it
+            if (!job.firesOnSchedule()) continue;
+            long lateness = now - job.getDueTime();
+            if (lateness > misfireThreshold && !misfire(job, now, lateness)) continue;
+            //the job waits for its upstream jobs, the last of them fires it
+            if (!job.scheduleDue()) continue;
+            logger.log(Level.INFO, "Executing job with ID: " + job.getID());
+            dispatch(job);
+            dispatched++;
+        }
+        metrics.recordTick(System.nanoTime() - start, jobsToInvoke.size());
+        if (tick.shouldCommit()) {
+            tick.shard = index;
+            tick.dueJobs = jobsToInvoke.size();
+            tick.dispatchedJobs = dispatched;
+            tick.pollDuration = polled - start;
+            tick.commit();
+        }
+    }
+
+    /**
+     * dispatch the jobs fired by their upstream jobs, each one is due at the time it's dispatched
+     *
+     * @return false if there was no triggered job
+     */
+    boolean runTriggeredJobs(long now) {
+        Job job = triggeredJobs.poll();
+        if (job == null) return false;
+        for (; job != null; job = triggeredJobs.poll()) {
+            //the job may be stopped or not started yet
+            if (!job.getState().isStarted()) continue;
+            logger.log(Level.INFO, "Executing job with ID: " + job.getID() + " after its upstream jobs");
+            job.triggered(now);
+            dispatch(job);
+        }
+        return true;
+    }
+
+    private void dispatch(Job job) {
+        JobDispatchEvent event = new JobDispatchEvent();
+        event.begin();
+        this.pool.submit(job);
+        if (event.shouldCommit()) {
+            event.jobID = job.getID();
+            event.scheduledTime = job.getDueTime();
+            event.lateness = clock.millis() - job.getDueTime();
+            event.commit();
+        }
+    }
+
+    /**
+     * @return false if the late execution should be dropped
+     */
+    private boolean misfire(Job job, long now, long lateness) {
+        maxMisfireLateness.accumulateAndGet(lateness, Math::max);
+        logger.log(Level.WARNING, "Job with ID: " + job.getID() + " misfired by " + lateness +
+                " ms, it was due at " + Instant.ofEpochMilli(job.getDueTime()));
+        return job.misfire(now);
+    }
+}
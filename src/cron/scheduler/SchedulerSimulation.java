@@ -0,0 +1,126 @@
+package cron.scheduler;
+
+import cron.scheduler.execution.JobExecutor;
+import cron.scheduler.job.Job;
+import cron.scheduler.time.VirtualClock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Scheduler simulation runs a scheduler on a {@link VirtualClock}, so months of schedule run in seconds.
+ * <p>
+ * The shard threads of the simulated scheduler aren't started, instead the simulation moves the clock
+ * straight to the nearest execution time of the shards and fires their due jobs in the calling thread,
+ * so the fires are deterministic and each tick costs only its due jobs whatever the time between ticks is.
+ * The jobs fired by their upstream jobs at a tick are dispatched in the same tick.
+ * The fires are recorded in a {@link FireLog}.
+ * <p>
+ * The jobs are added and started through {@link #getScheduler()} as with a real scheduler.
+ * Cluster nodes aren't simulated, as their leases are measured in real time.
+ */
+public class SchedulerSimulation {
+    private final VirtualClock clock;
+    private final FireLog fireLog;
+    private final Scheduler scheduler;
+
+    public SchedulerSimulation(SchedulerConfig config, Instant start) {
+        this(config, start, jobID -> true);
+    }
+
+    /**
+     * @param config     configuration of the simulated scheduler, a copy of it with the virtual clock is used
+     *                   so the given config isn't changed
+     * @param start      the time the virtual clock starts at
+     * @param loggedJobs IDs of the jobs whose fires are kept one by one, the fires of all jobs are counted
+     */
+    public SchedulerSimulation(SchedulerConfig config, Instant start, Predicate<String> loggedJobs) {
+        if (config.getClusterNode() != null)
+            throw new IllegalArgumentException("A scheduler in a cluster can't be simulated");
+        this.clock = new VirtualClock(start, config.getClock().getZone());
+        this.fireLog = new FireLog(loggedJobs);
+        this.scheduler = new Scheduler(new SchedulerConfig(config).setClock(clock), new InlineExecutor());
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    public FireLog getFireLog() {
+        return fireLog;
+    }
+
+    public void runFor(Duration duration) {
+        runUntil(clock.instant().plus(duration));
+    }
+
+    /**
+     * fire all the jobs due till the given time in order, then move the clock to it.
+     * the log of each fire is turned off meanwhile, so the run isn't bound by the logging.
+     */
+    public void runUntil(Instant end) {
+        long endMillis = end.toEpochMilli();
+        Logger logger = Logger.getLogger(Scheduler.class.getName());
+        Level level = logger.getLevel();
+        logger.setLevel(Level.WARNING);
+        try {
+            while (true) {
+                long next = Long.MAX_VALUE;
+                for (SchedulerShard shard : scheduler.shards()) next = Math.min(next, shard.nextExecutionTime());
+                if (next > endMillis) break;
+                clock.advanceTo(next);
+                long now = clock.millis();
+                long fired = fireLog.getTotalFires();
+                for (SchedulerShard shard : scheduler.shards()) shard.runDueJobs(now);
+                //the jobs fired by their upstream jobs run at the same tick, till no shard has any left
+                boolean triggered = true;
+                while (triggered) {
+                    triggered = false;
+                    for (SchedulerShard shard : scheduler.shards()) triggered |= shard.runTriggeredJobs(now);
+                }
+                fireLog.recordTick(now, (int) (fireLog.getTotalFires() - fired));
+            }
+        } finally {
+            logger.setLevel(level);
+        }
+        clock.advanceTo(endMillis);
+    }
+
+    /**
+     * runs the fired jobs in the simulation thread at the virtual time they're fired at
+     */
+    private class InlineExecutor implements JobExecutor {
+
+        @Override
+        public void submit(Job job) {
+            fireLog.recordFire(clock.millis(), job.getID());
+            job.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public long getRejectedJobs() {
+            return 0;
+        }
+
+        @Override
+        public int getQueueSize() {
+            return 0;
+        }
+
+        @Override
+        public int getActiveThreads() {
+            return 0;
+        }
+    }
+}
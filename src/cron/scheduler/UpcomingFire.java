@@ -0,0 +1,43 @@
+package cron.scheduler;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Upcoming fire is a time a job is going to be fired at, returned by {@link Scheduler#upcomingFires}.
+ */
+public class UpcomingFire {
+    private final Instant time;
+    private final String jobID;
+
+    public UpcomingFire(Instant time, String jobID) {
+        this.time = time;
+        this.jobID = jobID;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public String getJobID() {
+        return jobID;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UpcomingFire)) return false;
+        UpcomingFire fire = (UpcomingFire) o;
+        return time.equals(fire.time) && jobID.equals(fire.jobID);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(time, jobID);
+    }
+
+    @Override
+    public String toString() {
+        return time + " " + jobID;
+    }
+}
@@ -0,0 +1,70 @@
+package cron.scheduler;
+
+import cron.scheduler.time.Timer;
+import cron.scheduler.time.ZonePolicy;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Upcoming fires iterates the fire times of many jobs in a time window in time order.
+ * <p>
+ * Each job is a cursor on its own sequence of fire times, and the cursors are merged by a heap on their current times
+ * [k-way merge], so only one time per job is kept whatever the window is and each fire costs O(log jobs).
+ * The next time of a cursor is computed only when its current one is taken, so the iteration is lazy.
+ * Fires at the same time are ordered by the job ID.
+ */
+class UpcomingFires implements Iterator<UpcomingFire> {
+    private final PriorityQueue<Cursor> cursors;
+    private final long to;
+
+    /**
+     * @param jobs cursors on the timers and zones of the jobs, taken once so later changes of the jobs don't apply
+     * @param from epoch milliseconds of the start of the window, included
+     * @param to   epoch milliseconds of the end of the window, excluded
+     */
+    UpcomingFires(Collection<Cursor> jobs, long from, long to) {
+        this.to = to;
+        for (Cursor cursor : jobs) cursor.time = cursor.timer.getNextExecutionTime(from, cursor.zonePolicy);
+        jobs.removeIf(cursor -> cursor.time >= to);
+        //building the heap from a collection is linear
+        this.cursors = new PriorityQueue<>(jobs);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !cursors.isEmpty();
+    }
+
+    @Override
+    public UpcomingFire next() {
+        Cursor cursor = cursors.poll();
+        if (cursor == null) throw new NoSuchElementException();
+        UpcomingFire fire = new UpcomingFire(Instant.ofEpochMilli(cursor.time), cursor.jobID);
+        cursor.time = cursor.timer.getNextExecutionTime(cursor.time + 1, cursor.zonePolicy);
+        if (cursor.time < to) cursors.add(cursor);
+        return fire;
+    }
+
+    static class Cursor implements Comparable<Cursor> {
+        private final String jobID;
+        private final Timer timer;
+        private final ZonePolicy zonePolicy;
+        private long time;
+
+        Cursor(String jobID, Timer timer, ZonePolicy zonePolicy) {
+            this.jobID = jobID;
+            this.timer = timer;
+            this.zonePolicy = zonePolicy;
+        }
+
+        @Override
+        public int compareTo(Cursor cursor) {
+            int compare = Long.compare(time, cursor.time);
+            return compare != 0 ? compare : jobID.compareTo(cursor.jobID);
+        }
+    }
+}
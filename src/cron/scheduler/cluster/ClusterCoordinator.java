@@ -0,0 +1,40 @@
+package cron.scheduler.cluster;
+
+import java.util.Set;
+
+/**
+ * Cluster coordinator is the shared service the nodes of a cluster agree on through,
+ * ie a database, a lock service or an in-process implementation for tests.
+ * <p>
+ * Nodes announce themselves with renewable membership leases, and the jobs are split into partitions
+ * where each partition is fired by the node holding its lease only.
+ * A lease not renewed within its time to live expires, so the partitions of a dead node move to the others.
+ */
+public interface ClusterCoordinator {
+
+    /**
+     * register the node or renew its membership lease
+     *
+     * @param ttlMillis time the membership lasts without another heartbeat
+     * @return IDs of the live nodes including this one
+     */
+    Set<String> heartbeat(String nodeID, long ttlMillis);
+
+    /**
+     * acquire the lease of the partition if it's free or expired, or renew it if the node already holds it
+     *
+     * @param ttlMillis time the lease lasts without renewal
+     * @return true if the node holds the lease
+     */
+    boolean tryLease(int partition, String nodeID, long ttlMillis);
+
+    /**
+     * release the lease of the partition if the node holds it
+     */
+    void release(int partition, String nodeID);
+
+    /**
+     * remove the node and release all its leases
+     */
+    void leave(String nodeID);
+}
@@ -0,0 +1,173 @@
+package cron.scheduler.cluster;
+
+import java.time.Clock;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cluster node decides which jobs this scheduler fires when the same jobs are scheduled on many nodes.
+ * <p>
+ * The jobs are split into a fixed number of partitions by the hash of their IDs,
+ * and the partitions are split over the live nodes by a consistent hash ring, so a joining or leaving node
+ * moves only its own share of the partitions. A node fires the jobs of a partition only while it holds its lease.
+ * <p>
+ * The leases are renewed every third of their time to live, and a lease is trusted locally for two thirds of it
+ * measured from before the renewal, so a node stops firing before the coordinator lets another node take its lease.
+ * A partition taken by a node is fired only for the execution times after it's taken,
+ * so an execution already fired by the previous owner isn't fired again [assuming the clocks of the nodes are in sync].
+ * The time a partition is taken is read from the clock of the scheduler, the same clock the execution times come from.
+ */
+public class ClusterNode implements Runnable {
+    public static final int DEFAULT_PARTITIONS = 256;
+    public static final long DEFAULT_LEASE_TTL = 10_000;
+
+    private final ClusterCoordinator coordinator;
+    private final String nodeID;
+    private final long leaseTtl;
+    private final Lease[] leases;
+    private final Thread thread;
+    private final Logger logger;
+    private volatile boolean running;
+    //clock of the scheduler the node belongs to
+    private volatile Clock clock = Clock.systemUTC();
+
+    public ClusterNode(ClusterCoordinator coordinator, String nodeID) {
+        this(coordinator, nodeID, DEFAULT_PARTITIONS, DEFAULT_LEASE_TTL);
+    }
+
+    /**
+     * @param partitions     number of partitions the jobs are split into, the same on all nodes
+     * @param leaseTtlMillis time a lease lasts without renewal, a dead node's jobs move after it
+     */
+    public ClusterNode(ClusterCoordinator coordinator, String nodeID, int partitions, long leaseTtlMillis) {
+        if (partitions < 1) throw new IllegalArgumentException("Number of partitions should be positive: " + partitions);
+        if (leaseTtlMillis < 3) throw new IllegalArgumentException("Lease time to live is too short: " + leaseTtlMillis);
+        this.coordinator = coordinator;
+        this.nodeID = nodeID;
+        this.leaseTtl = leaseTtlMillis;
+        this.leases = new Lease[partitions];
+        for (int i = 0; i < partitions; i++) leases[i] = new Lease();
+        this.thread = new Thread(this, "cron-scheduler-cluster");
+        this.thread.setDaemon(true);
+        this.logger = Logger.getLogger(ClusterNode.class.getName());
+    }
+
+    /**
+     * join the cluster and take the leases of this node's partitions, then keep renewing them in the background
+     */
+    public void start() {
+        running = true;
+        renew();
+        thread.start();
+    }
+
+    /**
+     * leave the cluster, the leases are released so the other nodes take the partitions at their next renewal
+     */
+    public void leave() {
+        halt();
+        for (Lease lease : leases) lease.drop();
+        coordinator.leave(nodeID);
+    }
+
+    /**
+     * stop renewing the leases without releasing them, as if the node died
+     */
+    void halt() {
+        running = false;
+        thread.interrupt();
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public String getNodeID() {
+        return nodeID;
+    }
+
+    /**
+     * @param dueTime the execution time the job is fired for
+     * @return true if this node should fire the job
+     */
+    public boolean owns(String jobID, long dueTime) {
+        Lease lease = leases[partitionOf(jobID)];
+        return lease.isValid() && dueTime >= lease.ownedSince;
+    }
+
+    public int numOfOwnedPartitions() {
+        int owned = 0;
+        for (Lease lease : leases) if (lease.isValid()) owned++;
+        return owned;
+    }
+
+    int partitionOf(String jobID) {
+        return (int) Math.floorMod(ConsistentHashRing.hash(jobID), (long) leases.length);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(leaseTtl / 3);
+            } catch (InterruptedException e) {
+                return;
+            }
+            renew();
+        }
+    }
+
+    /**
+     * renew the leases of the partitions assigned to this node by the ring and release the others
+     */
+    private void renew() {
+        long start = System.nanoTime();
+        try {
+            Set<String> nodes = coordinator.heartbeat(nodeID, leaseTtl);
+            ConsistentHashRing ring = new ConsistentHashRing(nodes);
+            for (int partition = 0; partition < leases.length; partition++) {
+                Lease lease = leases[partition];
+                if (!running) return;
+                if (!nodeID.equals(ring.nodeOf("partition-" + partition))) {
+                    //stop firing before releasing, so the next owner can't fire at the same time
+                    if (lease.held) {
+                        lease.drop();
+                        coordinator.release(partition, nodeID);
+                    }
+                    continue;
+                }
+                if (coordinator.tryLease(partition, nodeID, leaseTtl))
+                    lease.renew(start + TimeUnit.MILLISECONDS.toNanos(leaseTtl * 2 / 3), clock.millis());
+                else lease.drop();
+            }
+        } catch (RuntimeException e) {
+            //the leases expire locally if the coordinator can't be reached
+            logger.log(Level.SEVERE, "Failed to renew the leases of node: " + nodeID, e);
+        }
+    }
+
+    private static class Lease {
+        volatile boolean held;
+        volatile long validUntil;
+        volatile long ownedSince;
+
+        /**
+         * a lease that lapsed locally may have been taken by another node meanwhile, so it's owned from now again
+         */
+        void renew(long validUntil, long now) {
+            if (!isValid()) ownedSince = now;
+            this.validUntil = validUntil;
+            held = true;
+        }
+
+        boolean isValid() {
+            return held && validUntil - System.nanoTime() > 0;
+        }
+
+        void drop() {
+            held = false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package cron.scheduler.cluster;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring of the nodes, each node is put on the ring many times [virtual nodes]
+ * so the keys are split evenly and a joining or leaving node moves only its own share of the keys.
+ */
+class ConsistentHashRing {
+    private static final int VIRTUAL_NODES = 64;
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    ConsistentHashRing(Collection<String> nodeIDs) {
+        for (String nodeID : nodeIDs)
+            for (int i = 0; i < VIRTUAL_NODES; i++) ring.put(hash(nodeID + "#" + i), nodeID);
+    }
+
+    /**
+     * @return the node of the first point on the ring at or after the hash of the key, null if there is no node
+     */
+    String nodeOf(String key) {
+        if (ring.isEmpty()) return null;
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    /**
+     * 64 bit FNV-1a of the characters followed by the murmur3 finalizer to spread close strings over the ring
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,53 @@
+package cron.scheduler.cluster;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Coordinator of the nodes running in the same process, used to test a cluster on one machine.
+ */
+public class InMemoryCoordinator implements ClusterCoordinator {
+    private final Map<String, Long> members = new HashMap<>();
+    private final Map<Integer, Lease> leases = new HashMap<>();
+
+    @Override
+    public synchronized Set<String> heartbeat(String nodeID, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        members.put(nodeID, now + ttlMillis);
+        members.values().removeIf(expiry -> expiry < now);
+        return new TreeSet<>(members.keySet());
+    }
+
+    @Override
+    public synchronized boolean tryLease(int partition, String nodeID, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        Lease lease = leases.get(partition);
+        if (lease != null && lease.expiry >= now && !lease.nodeID.equals(nodeID)) return false;
+        leases.put(partition, new Lease(nodeID, now + ttlMillis));
+        return true;
+    }
+
+    @Override
+    public synchronized void release(int partition, String nodeID) {
+        Lease lease = leases.get(partition);
+        if (lease != null && lease.nodeID.equals(nodeID)) leases.remove(partition);
+    }
+
+    @Override
+    public synchronized void leave(String nodeID) {
+        members.remove(nodeID);
+        leases.values().removeIf(lease -> lease.nodeID.equals(nodeID));
+    }
+
+    private static class Lease {
+        final String nodeID;
+        final long expiry;
+
+        Lease(String nodeID, long expiry) {
+            this.nodeID = nodeID;
+            this.expiry = expiry;
+        }
+    }
+}
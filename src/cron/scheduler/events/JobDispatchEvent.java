@@ -0,0 +1,31 @@
+package cron.scheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.Timestamp;
+
+/**
+ * Job dispatch event is the submission of a due job to the executor, its duration is the time the submit took.
+ */
+@Name("cron.scheduler.JobDispatch")
+@Label("Job Dispatch")
+@Category({"Cron Scheduler", "Scheduling"})
+@Description("A due job submitted to the executor by a scheduler shard")
+@StackTrace(false)
+public class JobDispatchEvent extends SchedulerEvent {
+    @Label("Job ID")
+    public String jobID;
+
+    @Label("Scheduled Time")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long scheduledTime;
+
+    @Label("Lateness")
+    @Description("Time between the scheduled time and the dispatch")
+    @Timespan(Timespan.MILLISECONDS)
+    public long lateness;
+}
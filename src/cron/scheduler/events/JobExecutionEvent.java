@@ -0,0 +1,34 @@
+package cron.scheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.Timestamp;
+
+/**
+ * Job execution event is a single execution of the function of a job, caught up executions are events of their own.
+ */
+@Name("cron.scheduler.JobExecution")
+@Label("Job Execution")
+@Category({"Cron Scheduler", "Execution"})
+@Description("An execution of a job in the executor")
+@StackTrace(false)
+public class JobExecutionEvent extends SchedulerEvent {
+    @Label("Job ID")
+    public String jobID;
+
+    @Label("Scheduled Time")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long scheduledTime;
+
+    @Label("Lateness")
+    @Description("Time between the scheduled time and the start of the execution")
+    @Timespan(Timespan.MILLISECONDS)
+    public long lateness;
+
+    @Label("Failed")
+    public boolean failed;
+}
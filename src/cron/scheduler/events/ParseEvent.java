@@ -0,0 +1,24 @@
+package cron.scheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Parse event is the parsing of a cron expression, either compiled or found in the timer cache.
+ */
+@Name("cron.scheduler.Parse")
+@Label("Cron Expression Parse")
+@Category({"Cron Scheduler", "Parsing"})
+@Description("A cron expression parsed to a timer")
+@StackTrace(false)
+public class ParseEvent extends SchedulerEvent {
+    @Label("Expression")
+    public String expression;
+
+    @Label("Cached")
+    @Description("True if the timer was found in the cache")
+    public boolean cached;
+}
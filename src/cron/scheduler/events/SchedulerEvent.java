@@ -0,0 +1,12 @@
+package cron.scheduler.events;
+
+import jdk.jfr.Event;
+
+/**
+ * Scheduler events are Java Flight Recorder events of the scheduler, enabled by default with no threshold.
+ * <p>
+ * When no recording is running {@link #begin()} and {@link #shouldCommit()} are no-ops inlined by the JIT,
+ * so the fields are set only inside a shouldCommit check and the events cost almost nothing in production.
+ */
+public abstract class SchedulerEvent extends Event {
+}
@@ -0,0 +1,33 @@
+package cron.scheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Tick event is a round of a shard firing its due jobs, its duration is split into
+ * polling the due jobs from the store [store updates and next execution times] and dispatching them.
+ */
+@Name("cron.scheduler.Tick")
+@Label("Tick")
+@Category({"Cron Scheduler", "Scheduling"})
+@Description("A round of a scheduler shard polling and dispatching its due jobs")
+@StackTrace(false)
+public class TickEvent extends SchedulerEvent {
+    @Label("Shard")
+    public int shard;
+
+    @Label("Due Jobs")
+    public int dueJobs;
+
+    @Label("Dispatched Jobs")
+    public int dispatchedJobs;
+
+    @Label("Poll Duration")
+    @Description("Time taken to poll the due jobs from the job store and reschedule them")
+    @Timespan(Timespan.NANOSECONDS)
+    public long pollDuration;
+}
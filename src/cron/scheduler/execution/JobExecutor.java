@@ -0,0 +1,31 @@
+package cron.scheduler.execution;
+
+import cron.scheduler.job.Job;
+
+/**
+ * Job executor runs the fired jobs outside the scheduler thread.
+ */
+public interface JobExecutor {
+
+    void submit(Job job);
+
+    /**
+     * stop accepting fired jobs, already submitted jobs still run
+     */
+    void shutdown();
+
+    /**
+     * @return number of fired jobs that couldn't be run as submitted
+     */
+    long getRejectedJobs();
+
+    /**
+     * @return number of fired jobs waiting to run
+     */
+    int getQueueSize();
+
+    /**
+     * @return number of jobs running now
+     */
+    int getActiveThreads();
+}
@@ -0,0 +1,110 @@
+package cron.scheduler.execution;
+
+import cron.scheduler.job.Job;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Platform job executor runs the fired jobs on a bounded pool of threads with a bounded queue,
+ * so a burst of fired jobs or slow jobs can't create an unbounded number of threads.
+ * <p>
+ * When the pool and the queue are full the fired job is handled according to the {@link RejectionPolicy}.
+ */
+public class PlatformJobExecutor implements JobExecutor {
+    private final ThreadPoolExecutor pool;
+    private final AtomicLong rejectedJobs = new AtomicLong();
+    private final Logger logger = Logger.getLogger(PlatformJobExecutor.class.getName());
+
+    public PlatformJobExecutor(int poolSize, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        this.pool = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new WorkerThreadFactory(),
+                createHandler(rejectionPolicy)
+        );
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void submit(Job job) {
+        pool.execute(job);
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return number of fired jobs that were dropped or run by the scheduler thread as the pool was full
+     */
+    @Override
+    public long getRejectedJobs() {
+        return rejectedJobs.get();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return pool.getQueue().size();
+    }
+
+    @Override
+    public int getActiveThreads() {
+        return pool.getActiveCount();
+    }
+
+    private RejectedExecutionHandler createHandler(RejectionPolicy rejectionPolicy) {
+        switch (rejectionPolicy) {
+            case DROP:
+                return (job, executor) -> {
+                    rejectedJobs.incrementAndGet();
+                    logger.log(Level.WARNING, "Pool is full, dropping job with ID: " + ((Job) job).getID());
+                };
+            case DROP_OLDEST:
+                return (job, executor) -> {
+                    rejectedJobs.incrementAndGet();
+                    if (executor.isShutdown()) return;
+                    Runnable oldest = executor.getQueue().poll();
+                    if (oldest != null)
+                        logger.log(Level.WARNING, "Pool is full, dropping job with ID: " + ((Job) oldest).getID());
+                    executor.execute(job);
+                };
+            case CALLER_RUNS:
+                return (job, executor) -> {
+                    rejectedJobs.incrementAndGet();
+                    if (!executor.isShutdown()) job.run();
+                };
+            case BLOCK:
+            default:
+                return (job, executor) -> {
+                    if (executor.isShutdown()) return;
+                    try {
+                        executor.getQueue().put(job);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        rejectedJobs.incrementAndGet();
+                    }
+                };
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "cron-scheduler-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package cron.scheduler.execution;
+
+/**
+ * What to do with a fired job when all the pool threads are busy and its queue is full.
+ */
+public enum RejectionPolicy {
+    /**
+     * drop the fired job
+     */
+    DROP,
+    /**
+     * drop the oldest job waiting in the queue to make room for the fired one
+     */
+    DROP_OLDEST,
+    /**
+     * run the fired job in the scheduler thread, delaying the dispatch of the other jobs
+     */
+    CALLER_RUNS,
+    /**
+     * block the scheduler thread till there is room in the queue
+     */
+    BLOCK
+}
@@ -0,0 +1,112 @@
+package cron.scheduler.execution;
+
+import cron.scheduler.job.Job;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual thread job executor runs each fired job on its own virtual thread [Java 21+],
+ * so jobs blocking on I/O don't hold a platform thread while waiting.
+ * <p>
+ * The number of jobs running at the same time can be limited by a semaphore,
+ * jobs over the limit wait on their virtual threads without blocking the scheduler thread.
+ * <p>
+ * The executor is created through reflection so the scheduler still runs on older runtimes,
+ * use {@link #isSupported()} before creating it.
+ */
+public class VirtualThreadJobExecutor implements JobExecutor {
+    private static final ExecutorServiceFactory factory = lookupFactory();
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong rejectedJobs = new AtomicLong();
+
+    /**
+     * @param maxConcurrentJobs maximum number of jobs running at the same time, 0 for no limit
+     */
+    public VirtualThreadJobExecutor(int maxConcurrentJobs) {
+        if (factory == null) throw new UnsupportedOperationException("Virtual threads need Java 21 or later");
+        this.executor = factory.create();
+        this.permits = maxConcurrentJobs > 0 ? new Semaphore(maxConcurrentJobs) : null;
+    }
+
+    public static boolean isSupported() {
+        return factory != null;
+    }
+
+    @Override
+    public void submit(Job job) {
+        waiting.incrementAndGet();
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            waiting.decrementAndGet();
+            rejectedJobs.incrementAndGet();
+        }
+    }
+
+    private void run(Job job) {
+        try {
+            if (permits != null) permits.acquire();
+        } catch (InterruptedException e) {
+            waiting.decrementAndGet();
+            rejectedJobs.incrementAndGet();
+            return;
+        }
+        waiting.decrementAndGet();
+        running.incrementAndGet();
+        try {
+            job.run();
+        } finally {
+            running.decrementAndGet();
+            if (permits != null) permits.release();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public long getRejectedJobs() {
+        return rejectedJobs.get();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return waiting.get();
+    }
+
+    @Override
+    public int getActiveThreads() {
+        return running.get();
+    }
+
+    private interface ExecutorServiceFactory {
+        ExecutorService create();
+    }
+
+    private static ExecutorServiceFactory lookupFactory() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return () -> {
+                try {
+                    return (ExecutorService) method.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    throw new UnsupportedOperationException("Can't create virtual thread executor", e);
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
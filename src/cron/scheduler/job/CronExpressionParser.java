@@ -1,21 +1,70 @@
 package cron.scheduler.job;
 
+import cron.scheduler.events.ParseEvent;
+import cron.scheduler.parser.DaysOfWeekParser;
 import cron.scheduler.parser.DaysParser;
 import cron.scheduler.parser.HoursParser;
 import cron.scheduler.parser.MinutesParser;
 import cron.scheduler.parser.MonthsParser;
+import cron.scheduler.parser.SecondsParser;
 import cron.scheduler.time.Timer;
 
+/**
+ * Cron expressions are on the form [Min Hour Day Month], [Min Hour Day Month DayOfWeek]
+ * or [Sec Min Hour Day Month DayOfWeek], an expression without the day of week field matches all the days of week.
+ * As in cron, a day matching either the days or the day of week fires when neither field starts with *,
+ * otherwise the day must match both, so a * field leaves the other one alone.
+ */
 class CronExpressionParser {
+    private static final int DAY_OF_WEEK_FIELDS = 5;
+    private static final int SECONDS_FIELDS = 6;
+    private static final SecondsParser secondsParser = new SecondsParser();
+    private static final MinutesParser minutesParser = new MinutesParser();
+    private static final HoursParser hoursParser = new HoursParser();
+    private static final DaysParser daysParser = new DaysParser();
+    private static final MonthsParser monthsParser = new MonthsParser();
+    private static final DaysOfWeekParser daysOfWeekParser = new DaysOfWeekParser();
 
+    /**
+     * parse the expression or get its timer from the cache if it's parsed before,
+     * expressions are normalized first so "0  * * *" and "0 * * *" share the same timer.
+     */
     public static Timer parse(String expression) throws Exception {
-        String[] fields = expression.trim().split("\\s");
-        if (fields.length < 4) throw new Exception("Invalid number of arguments");
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length < 4 || fields.length > SECONDS_FIELDS) throw new Exception("Invalid number of arguments");
+        String normalized = String.join(" ", fields);
+        TimerCache cache = TimerCache.getInstance();
+        Timer timer = cache.get(normalized);
+        boolean cached = timer != null;
+        if (!cached) timer = cache.put(normalized, compile(fields));
+        if (event.shouldCommit()) {
+            event.expression = normalized;
+            event.cached = cached;
+            event.commit();
+        }
+        return timer;
+    }
+
+    /**
+     * compile the fields to a timer without the cache
+     */
+    static Timer compile(String[] fields) throws Exception {
+        //the seconds field comes first, so the other fields are shifted by one
+        int first = fields.length >= SECONDS_FIELDS ? 1 : 0;
+        long daysOfWeek = Timer.WEEK_DAYS;
+        if (fields.length >= DAY_OF_WEEK_FIELDS) {
+            daysOfWeek = daysOfWeekParser.parse(fields[first + 4]);
+            if (!fields[first + 2].startsWith("*") && !fields[first + 4].startsWith("*")) daysOfWeek |= Timer.EITHER_DAY;
+        }
         return new Timer(
-                new MinutesParser().getPossibilitiesSet(fields[0]),
-                new HoursParser().getPossibilitiesSet(fields[1]),
-                new DaysParser().getPossibilitiesSet(fields[2]),
-                new MonthsParser().getPossibilitiesSet(fields[3])
+                first == 1 ? secondsParser.parse(fields[0]) : 1L,
+                minutesParser.parse(fields[first]),
+                (int) hoursParser.parse(fields[first + 1]),
+                daysParser.parse(fields[first + 2]),
+                (short) monthsParser.parse(fields[first + 3]),
+                daysOfWeek
         );
     }
 }
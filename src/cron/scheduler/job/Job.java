@@ -1,32 +1,427 @@
 package cron.scheduler.job;
 
+import cron.scheduler.events.JobExecutionEvent;
+import cron.scheduler.metrics.Histogram;
+import cron.scheduler.metrics.SchedulerMetrics;
 import cron.scheduler.time.Timer;
+import cron.scheduler.time.ZonePolicy;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Job is the basic unit of the scheduler.
  * It's runnable to get run in a separate thread.
  * It's comparable by its next execution time.
+ * <p>
+ * The next execution time is computed once when the job is scheduled [started, rescheduled or fired]
+ * and stored as an absolute time, so the order of the jobs doesn't change while they're waiting.
+ * <p>
+ * Overlapping executions of the same job are handled according to its {@link OverlapPolicy}
+ * and late executions according to its {@link MisfirePolicy}.
+ * <p>
+ * The lifecycle {@link JobState} is changed atomically, so many threads can start, stop and run the job at once.
+ * <p>
+ * A job can depend on upstream jobs, each successful execution of a job tells its downstream jobs
+ * and a downstream job whose upstream jobs all succeeded is fired right away according to its {@link TriggerPolicy}.
+ * The dependencies are kept as arrays replaced on each change, so reading them on each execution doesn't lock.
+ * A job created without a cron expression has no schedule, it's fired only by its upstream jobs.
+ * <p>
+ * Each execution is recorded as a {@link JobExecutionEvent} when a flight recording is running.
  */
 public class Job implements Comparable<Job>, Runnable {
-    private Runnable function;
-    private Timer timer;
-    private String ID;
+    //limit of the missed executions run by a catch up, so a long pause doesn't block the job for long
+    private static final int MAX_CATCH_UP = 1000;
+    private static final Job[] NO_JOBS = new Job[0];
+    private static final AtomicReferenceFieldUpdater<Job, Histogram> EXECUTION_TIME =
+            AtomicReferenceFieldUpdater.newUpdater(Job.class, Histogram.class, "executionTime");
+
+    private volatile Runnable function;
+    //null for a job without a schedule
+    private volatile Timer timer;
+    private volatile String cronExpression;
+    //the zone the expression is read in, the default zone of the JVM when the job is created unless changed
+    private volatile ZonePolicy zonePolicy = ZonePolicy.systemDefault();
+    private volatile String ID;
+    private volatile long nextExecutionTime;
+    private volatile long dueTime;
+    private final AtomicReference<JobState> state = new AtomicReference<>(JobState.ADDED);
+    private volatile OverlapPolicy overlapPolicy;
+    //number of executions running or waiting to run
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong skippedExecutions = new AtomicLong();
+    private final AtomicLong queuedExecutions = new AtomicLong();
+    private volatile MisfirePolicy misfirePolicy = MisfirePolicy.FIRE_ONCE_NOW;
+    //missed executions to run with the next execution
+    private final AtomicInteger catchUp = new AtomicInteger();
+    private final AtomicLong misfires = new AtomicLong();
+    //the type and data the function is created from, null for jobs added with a runnable
+    private volatile String jobType;
+    private volatile String jobData;
+    //clock of the scheduler the job is added to
+    private volatile Clock clock = Clock.systemUTC();
+    //metrics of the scheduler the job is added to, the histogram is created on the first execution
+    private volatile SchedulerMetrics metrics;
+    private volatile Histogram executionTime;
+    private final AtomicLong failures = new AtomicLong();
+    //dependencies, only changed by the scheduler under its lock of the dependencies
+    private volatile Job[] upstreams = NO_JOBS;
+    private volatile Job[] downstreams = NO_JOBS;
+    private volatile TriggerPolicy triggerPolicy = TriggerPolicy.UPSTREAM;
+    //fires the downstream jobs whose upstream jobs succeeded
+    private volatile Consumer<Job> downstreamTrigger;
+    //upstream jobs succeeded since the job was last fired by them and if its execution time passed meanwhile,
+    //guarded by the lock of the set
+    private final HashSet<Job> succeededUpstreams = new HashSet<>();
+    private boolean waitingForUpstreams;
 
     public Job(String ID, String cronExpression, Runnable function) throws Exception {
+        this(ID, cronExpression, function, OverlapPolicy.ALLOW_PARALLEL);
+    }
+
+    public Job(String ID, String cronExpression, Runnable function, OverlapPolicy overlapPolicy) throws Exception {
         this.timer = CronExpressionParser.parse(cronExpression);
+        this.cronExpression = cronExpression;
         this.ID = ID;
         this.function = function;
+        this.overlapPolicy = overlapPolicy;
+    }
 
+    /**
+     * Create a job without a schedule, it's never due and runs only when its upstream jobs fire it.
+     */
+    public Job(String ID, Runnable function, OverlapPolicy overlapPolicy) {
+        this.ID = ID;
+        this.function = function;
+        this.overlapPolicy = overlapPolicy;
+        this.nextExecutionTime = Long.MAX_VALUE;
     }
 
     public void changeSchedule(String cronExpression) throws Exception {
         this.timer = CronExpressionParser.parse(cronExpression);
+        this.cronExpression = cronExpression;
+        scheduleAfter(clock.millis());
+    }
+
+    /**
+     * Change the zone the cron expression is read in and compute the next execution time in it.
+     */
+    public void changeZone(ZonePolicy zonePolicy) {
+        this.zonePolicy = zonePolicy;
+        scheduleAfter(clock.millis());
+    }
+
+    public ZonePolicy getZonePolicy() {
+        return zonePolicy;
+    }
+
+    /**
+     * Compute and store the next execution time after the second of the given time,
+     * the second itself is excluded as it's either running now or already passed.
+     * a job without a schedule is never due.
+     *
+     * @param epochMillis milliseconds since epoch
+     */
+    public void scheduleAfter(long epochMillis) {
+        Timer timer = this.timer;
+        this.nextExecutionTime = timer == null ? Long.MAX_VALUE :
+                timer.getNextExecutionTime(Math.floorDiv(epochMillis, 1000) * 1000 + 1000, zonePolicy);
+    }
+
+    /**
+     * @return false if the job was created without a cron expression
+     */
+    public boolean hasSchedule() {
+        return timer != null;
+    }
+
+    /**
+     * Reschedule the job after it's found due at the given time,
+     * the execution time it was due at is kept to measure how late it's fired.
+     *
+     * @param epochMillis milliseconds since epoch the job is found due at
+     */
+    public void reschedule(long epochMillis) {
+        this.dueTime = nextExecutionTime;
+        scheduleAfter(epochMillis);
+    }
+
+    /**
+     * @return milliseconds since epoch of the execution time the job was last found due at
+     */
+    public long getDueTime() {
+        return dueTime;
+    }
+
+    /**
+     * Record that the job is fired late at the given time, with {@link MisfirePolicy#FIRE_ALL_MISSED}
+     * the executions missed after the due time are added to the next execution.
+     *
+     * @param epochMillis milliseconds since epoch the job is fired at
+     * @return false if the late execution should be dropped
+     */
+    public boolean misfire(long epochMillis) {
+        misfires.incrementAndGet();
+        SchedulerMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordMisfire();
+        MisfirePolicy policy = misfirePolicy;
+        if (policy == MisfirePolicy.FIRE_ALL_MISSED) catchUp.addAndGet(missedExecutions(dueTime, epochMillis));
+        return policy != MisfirePolicy.SKIP;
+    }
+
+    /**
+     * @return number of execution times after the first time and not after the second one, at most MAX_CATCH_UP
+     */
+    private int missedExecutions(long from, long to) {
+        int missed = 0;
+        Timer timer = this.timer;
+        if (timer == null) return 0;
+        ZonePolicy zonePolicy = this.zonePolicy;
+        for (long time = timer.getNextExecutionTime(from + 1, zonePolicy); time <= to && missed < MAX_CATCH_UP;
+             time = timer.getNextExecutionTime(time + 1, zonePolicy)) missed++;
+        return missed;
+    }
+
+    /**
+     * @return milliseconds since epoch of the stored next execution time
+     */
+    public long getNextExecutionTime() {
+        return nextExecutionTime;
     }
 
     public void setFunction(Runnable function) {
         this.function = function;
     }
 
+    public JobState getState() {
+        return state.get();
+    }
+
+    /**
+     * move the job to another state if it's in the expected one
+     *
+     * @return true if the state is changed
+     */
+    public boolean changeState(JobState expected, JobState newState) {
+        return state.compareAndSet(expected, newState);
+    }
+
+    /**
+     * @return true if the job is started and moved to the stopped state
+     */
+    public boolean stop() {
+        while (true) {
+            JobState current = state.get();
+            if (!current.isStarted()) return false;
+            if (state.compareAndSet(current, JobState.STOPPED)) return true;
+        }
+    }
+
+    /**
+     * move the job to the removed state, a removed job can't be started again
+     */
+    public void remove() {
+        state.set(JobState.REMOVED);
+    }
+
+    public void setOverlapPolicy(OverlapPolicy overlapPolicy) {
+        this.overlapPolicy = overlapPolicy;
+    }
+
+    public OverlapPolicy getOverlapPolicy() {
+        return overlapPolicy;
+    }
+
+    public void setMisfirePolicy(MisfirePolicy misfirePolicy) {
+        this.misfirePolicy = misfirePolicy;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    /**
+     * @return number of times the job was fired too late
+     */
+    public long getMisfires() {
+        return misfires.get();
+    }
+
+    /**
+     * @return number of executions dropped because the job was already running
+     */
+    public long getSkippedExecutions() {
+        return skippedExecutions.get();
+    }
+
+    /**
+     * @return number of executions that waited for the running execution to finish
+     */
+    public long getQueuedExecutions() {
+        return queuedExecutions.get();
+    }
+
+    /**
+     * keep the type and data the function of the job is created from, so the job can be persisted
+     */
+    public void setJobType(String jobType, String jobData) {
+        this.jobType = jobType;
+        this.jobData = jobData;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public String getJobData() {
+        return jobData;
+    }
+
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public Timer getTimer() {
+        return timer;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void setDownstreamTrigger(Consumer<Job> downstreamTrigger) {
+        this.downstreamTrigger = downstreamTrigger;
+    }
+
+    public void setTriggerPolicy(TriggerPolicy triggerPolicy) {
+        this.triggerPolicy = triggerPolicy;
+    }
+
+    public TriggerPolicy getTriggerPolicy() {
+        return triggerPolicy;
+    }
+
+    /**
+     * make this job depend on the given job, the caller should check the dependency doesn't make a cycle
+     */
+    public void addUpstream(Job upstream) {
+        if (Arrays.asList(upstreams).contains(upstream)) return;
+        upstreams = append(upstreams, upstream);
+        upstream.downstreams = append(upstream.downstreams, this);
+    }
+
+    /**
+     * drop the dependency of this job on the given job, the successes of the other upstream jobs are kept
+     */
+    public void removeUpstream(Job upstream) {
+        upstreams = without(upstreams, upstream);
+        upstream.downstreams = without(upstream.downstreams, this);
+        synchronized (succeededUpstreams) {
+            succeededUpstreams.remove(upstream);
+        }
+    }
+
+    public List<Job> getUpstreams() {
+        return Collections.unmodifiableList(Arrays.asList(upstreams));
+    }
+
+    public List<Job> getDownstreams() {
+        return Collections.unmodifiableList(Arrays.asList(downstreams));
+    }
+
+    private static Job[] append(Job[] jobs, Job job) {
+        Job[] appended = Arrays.copyOf(jobs, jobs.length + 1);
+        appended[jobs.length] = job;
+        return appended;
+    }
+
+    private static Job[] without(Job[] jobs, Job job) {
+        return Arrays.stream(jobs).filter(other -> other != job).toArray(Job[]::new);
+    }
+
+    /**
+     * @return false if the job is fired only by its upstream jobs or has no schedule, so its schedule shouldn't fire it
+     */
+    public boolean firesOnSchedule() {
+        return timer != null && (upstreams.length == 0 || triggerPolicy != TriggerPolicy.UPSTREAM);
+    }
+
+    /**
+     * Called when the execution time of the job passed, with {@link TriggerPolicy#UPSTREAM_AND_SCHEDULE}
+     * the job waits for its upstream jobs unless they already succeeded.
+     *
+     * @return true if the job should be fired now
+     */
+    public boolean scheduleDue() {
+        if (upstreams.length == 0 || triggerPolicy != TriggerPolicy.UPSTREAM_AND_SCHEDULE) return true;
+        synchronized (succeededUpstreams) {
+            if (succeededUpstreams.size() < upstreams.length) {
+                waitingForUpstreams = true;
+                return false;
+            }
+            succeededUpstreams.clear();
+            waitingForUpstreams = false;
+            return true;
+        }
+    }
+
+    /**
+     * record that the given upstream job succeeded
+     *
+     * @return true if this job should be fired now as the last of its upstream jobs succeeded
+     */
+    private boolean upstreamSucceeded(Job upstream) {
+        TriggerPolicy policy = triggerPolicy;
+        Job[] upstreams = this.upstreams;
+        synchronized (succeededUpstreams) {
+            //the dependency is dropped meanwhile
+            if (!Arrays.asList(upstreams).contains(upstream)) return false;
+            succeededUpstreams.add(upstream);
+            if (succeededUpstreams.size() < upstreams.length) return false;
+            if (policy == TriggerPolicy.UPSTREAM_AND_SCHEDULE && !waitingForUpstreams) return false;
+            succeededUpstreams.clear();
+            waitingForUpstreams = false;
+            return true;
+        }
+    }
+
+    /**
+     * Record that the job is fired by its upstream jobs at the given time,
+     * so the lateness of the execution is measured from it instead of the last execution time of the job.
+     */
+    public void triggered(long epochMillis) {
+        this.dueTime = epochMillis;
+    }
+
+    public void setMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return histogram of the execution times of this job in microseconds, null if it never ran
+     */
+    public Histogram getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * @return number of executions that threw an exception
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
     public void setID(String ID) {
         this.ID = ID;
     }
@@ -35,26 +430,139 @@ public class Job implements Comparable<Job>, Runnable {
         return ID;
     }
 
+    /**
+     * @return remaining minutes from the current minute of the clock to the next execution time,
+     * null for a job without a schedule
+     */
     public Integer getNextTime() {
-        try {
-            return this.timer.getNextExecutionTime();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
+        Timer timer = this.timer;
+        if (timer == null) return null;
+        long minuteStart = Math.floorDiv(clock.millis(), 60_000) * 60_000;
+        return (int) ((timer.getNextExecutionTime(minuteStart, zonePolicy) - minuteStart) / 60_000);
     }
 
     @Override
     public int compareTo(Job job) {
-        return this.getNextTime() - job.getNextTime();
+        return Long.compare(this.nextExecutionTime, job.nextExecutionTime);
     }
 
     @Override
     public void run() {
-        execute();
+        SchedulerMetrics metrics = this.metrics;
+        if (metrics != null && dueTime > 0) metrics.recordFireLateness(clock.millis() - dueTime);
+        state.compareAndSet(JobState.SCHEDULED, JobState.RUNNING);
+        try {
+            runWithOverlapPolicy();
+        } finally {
+            if (inFlight.get() == 0) state.compareAndSet(JobState.RUNNING, JobState.SCHEDULED);
+        }
+    }
+
+    private void recordSkippedExecution() {
+        skippedExecutions.incrementAndGet();
+        SchedulerMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordSkippedExecution();
     }
+
+    private void runWithOverlapPolicy() {
+        switch (overlapPolicy) {
+            case SKIP_IF_RUNNING:
+                if (!inFlight.compareAndSet(0, 1)) {
+                    recordSkippedExecution();
+                    return;
+                }
+                break;
+            case QUEUE_ONE:
+                while (true) {
+                    int running = inFlight.get();
+                    if (running >= 2) {
+                        recordSkippedExecution();
+                        return;
+                    }
+                    if (inFlight.compareAndSet(running, running + 1)) {
+                        //the running execution will run this one after it finishes
+                        if (running == 1) {
+                            queuedExecutions.incrementAndGet();
+                            SchedulerMetrics metrics = this.metrics;
+                            if (metrics != null) metrics.recordQueuedExecution();
+                            return;
+                        }
+                        break;
+                    }
+                }
+                break;
+            case ALLOW_PARALLEL:
+            default:
+                inFlight.incrementAndGet();
+                try {
+                    executeSafely();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return;
+        }
+        boolean again;
+        do {
+            try {
+                executeSafely();
+            } finally {
+                again = inFlight.decrementAndGet() > 0;
+            }
+        } while (again);
+    }
+
     public void execute() {
         function.run();
     }
 
+    /**
+     * execute the function and log its failure, so a failing execution doesn't stop the waiting one.
+     * the missed executions to catch up are run first as part of the same execution.
+     */
+    private void executeSafely() {
+        for (int i = catchUp.getAndSet(0); i >= 0; i--) {
+            JobExecutionEvent event = new JobExecutionEvent();
+            event.begin();
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                execute();
+            } catch (RuntimeException e) {
+                failed = true;
+                Logger.getLogger(Job.class.getName()).log(Level.SEVERE, "Job with ID: " + ID + " failed", e);
+            }
+            recordExecution(System.nanoTime() - start, failed);
+            if (!failed) fireDownstreams();
+            if (event.shouldCommit()) {
+                long dueTime = this.dueTime;
+                //the wall clock time is read only when the event is recorded,
+                //a clock that doesn't move while the job runs [a virtual one] would put the start before the due time
+                long startMillis = clock.millis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                event.jobID = ID;
+                event.scheduledTime = dueTime;
+                event.lateness = dueTime > 0 ? Math.max(0, startMillis - dueTime) : 0;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * fire the downstream jobs waiting only for this job, straight from the thread that ran it
+     */
+    private void fireDownstreams() {
+        Consumer<Job> trigger = downstreamTrigger;
+        if (trigger == null) return;
+        for (Job downstream : downstreams)
+            if (downstream.upstreamSucceeded(this)) trigger.accept(downstream);
+    }
+
+    private void recordExecution(long nanos, boolean failed) {
+        if (failed) failures.incrementAndGet();
+        if (executionTime == null) EXECUTION_TIME.compareAndSet(this, null, new Histogram());
+        executionTime.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        SchedulerMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordExecution(nanos, failed);
+    }
+
 }
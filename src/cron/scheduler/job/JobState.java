@@ -0,0 +1,26 @@
+package cron.scheduler.job;
+
+/**
+ * Lifecycle of a job inside the scheduler.
+ * <pre>
+ * ADDED -> SCHEDULED <-> RUNNING
+ *              ^  |         |
+ *              |  v         |
+ *            STOPPED <------+
+ * </pre>
+ * any state can move to REMOVED which is final.
+ */
+public enum JobState {
+    ADDED,
+    SCHEDULED,
+    RUNNING,
+    STOPPED,
+    REMOVED;
+
+    /**
+     * @return true if the job is started, ie waiting for its next execution or running
+     */
+    public boolean isStarted() {
+        return this == SCHEDULED || this == RUNNING;
+    }
+}
@@ -0,0 +1,20 @@
+package cron.scheduler.job;
+
+/**
+ * What to do when a job is fired too late after its execution time [the scheduler was paused or stalled]
+ * so one or more of its executions were missed.
+ */
+public enum MisfirePolicy {
+    /**
+     * run the job once now, the other missed executions are dropped
+     */
+    FIRE_ONCE_NOW,
+    /**
+     * run all the missed executions now one after another as a single execution of the job
+     */
+    FIRE_ALL_MISSED,
+    /**
+     * drop the late execution and wait for the next one
+     */
+    SKIP
+}
@@ -0,0 +1,20 @@
+package cron.scheduler.job;
+
+/**
+ * What to do when a job is fired while its previous execution is still running.
+ */
+public enum OverlapPolicy {
+    /**
+     * drop the new execution
+     */
+    SKIP_IF_RUNNING,
+    /**
+     * run the new execution right after the running one, at most one execution waits
+     * and any other execution is dropped
+     */
+    QUEUE_ONE,
+    /**
+     * run the new execution in parallel with the running one
+     */
+    ALLOW_PARALLEL
+}
@@ -0,0 +1,96 @@
+package cron.scheduler.job;
+
+import cron.scheduler.time.Timer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the compiled timers keyed by the normalized cron expression.
+ * <p>
+ * Timers are immutable, so all jobs of the same expression share the same timer.
+ * When the cache is full the least recently used expression is evicted.
+ */
+public class TimerCache {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final TimerCache singleton = new TimerCache(DEFAULT_CAPACITY);
+
+    private final LinkedHashMap<String, Timer> timers;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private int capacity;
+
+    TimerCache(int capacity) {
+        this.capacity = capacity;
+        this.timers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Timer> eldest) {
+                if (size() <= TimerCache.this.capacity) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    public static TimerCache getInstance() {
+        return singleton;
+    }
+
+    /**
+     * @return the cached timer of the expression, null if it's not cached
+     */
+    synchronized Timer get(String expression) {
+        Timer timer = timers.get(expression);
+        if (timer == null) misses.incrementAndGet();
+        else hits.incrementAndGet();
+        return timer;
+    }
+
+    /**
+     * cache the timer unless another thread cached the same expression first
+     *
+     * @return the cached timer of the expression
+     */
+    synchronized Timer put(String expression, Timer timer) {
+        Timer cached = timers.putIfAbsent(expression, timer);
+        return cached == null ? timer : cached;
+    }
+
+    /**
+     * change the maximum number of cached expressions, extra expressions are evicted
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Negative capacity: " + capacity);
+        this.capacity = capacity;
+        while (timers.size() > capacity) {
+            timers.remove(timers.keySet().iterator().next());
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    public synchronized void clear() {
+        timers.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+}
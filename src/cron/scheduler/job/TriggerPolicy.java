@@ -0,0 +1,22 @@
+package cron.scheduler.job;
+
+/**
+ * How a job that depends on upstream jobs is fired, a job without upstream jobs is fired by its schedule only.
+ * <p>
+ * The upstream jobs count once all of them succeeded since the job was last fired by them.
+ */
+public enum TriggerPolicy {
+    /**
+     * run the job as soon as its upstream jobs succeeded, its schedule isn't used
+     */
+    UPSTREAM,
+    /**
+     * run the job at its execution time if its upstream jobs succeeded,
+     * otherwise wait for them and run it as soon as the last one succeeds
+     */
+    UPSTREAM_AND_SCHEDULE,
+    /**
+     * run the job at its execution times and whenever its upstream jobs succeeded
+     */
+    UPSTREAM_OR_SCHEDULE
+}
@@ -0,0 +1,86 @@
+package cron.scheduler.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non negative values in buckets of powers of two,
+ * bucket i counts the values in [2^(i-1), 2^i - 1] and bucket 0 counts zero.
+ * <p>
+ * Each bucket is a striped counter created on its first value, so many threads can record at once
+ * without contention and a histogram of values in a narrow range takes only a few counters.
+ * Percentiles are approximated by the upper bound of their bucket.
+ */
+public class Histogram {
+    private static final int BUCKETS = 40;
+
+    private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        int index = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+        LongAdder bucket = buckets.get(index);
+        if (bucket == null) {
+            buckets.compareAndSet(index, null, new LongAdder());
+            bucket = buckets.get(index);
+        }
+        bucket.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder bucket = buckets.get(i);
+            if (bucket != null) count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * @param quantile between 0 and 1, ie 0.99 for the 99th percentile
+     * @return the upper bound of the bucket of the quantile, not more than the max
+     */
+    public long getPercentile(double quantile) {
+        long[] counts = getBuckets();
+        long count = 0;
+        for (long bucket : counts) count += bucket;
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) return Math.min(getMax(), (1L << i) - 1);
+        }
+        return getMax();
+    }
+
+    /**
+     * @return count of each bucket
+     */
+    public long[] getBuckets() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder bucket = buckets.get(i);
+            if (bucket != null) counts[i] = bucket.sum();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,58 @@
+package cron.scheduler.metrics;
+
+/**
+ * Metrics of a scheduler exported over JMX, times are in microseconds unless the name says otherwise.
+ */
+public interface SchedulerMXBean {
+
+    int getTotalJobs();
+
+    int getScheduledJobs();
+
+    long getExecutions();
+
+    long getFailures();
+
+    double getExecutionTimeMean();
+
+    long getExecutionTimeP50();
+
+    long getExecutionTimeP99();
+
+    long getExecutionTimeMax();
+
+    long getFireLatenessP50Millis();
+
+    long getFireLatenessP99Millis();
+
+    long getFireLatenessMaxMillis();
+
+    long getTickDurationP99();
+
+    long getTickDurationMax();
+
+    double getJobsPerTickMean();
+
+    long getJobsPerTickMax();
+
+    int getQueueSize();
+
+    int getActiveThreads();
+
+    long getRejectedExecutions();
+
+    long getMisfires();
+
+    long getWakeups();
+
+    /**
+     * @param quantile between 0 and 1, ie 0.99 for the 99th percentile
+     * @return the execution time percentile of a single job, -1 if there is no job with this ID
+     */
+    long getJobExecutionTimePercentile(String jobID, double quantile);
+
+    /**
+     * @return number of failed executions of a single job, -1 if there is no job with this ID
+     */
+    long getJobFailures(String jobID);
+}
@@ -0,0 +1,106 @@
+package cron.scheduler.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scheduler metrics are recorded by the shards and the running jobs without any lock,
+ * and read by the {@link SchedulerMXBean} when they're pulled.
+ */
+public class SchedulerMetrics {
+    private final Histogram executionTime = new Histogram();
+    private final Histogram fireLateness = new Histogram();
+    private final Histogram tickDuration = new Histogram();
+    private final Histogram jobsPerTick = new Histogram();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder misfires = new LongAdder();
+    private final LongAdder skippedExecutions = new LongAdder();
+    private final LongAdder queuedExecutions = new LongAdder();
+
+    /**
+     * @param nanos  time the execution took
+     * @param failed true if the execution threw an exception
+     */
+    public void recordExecution(long nanos, boolean failed) {
+        executionTime.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        if (failed) failures.increment();
+    }
+
+    /**
+     * @param millis time between the execution time of a job and the start of its execution
+     */
+    public void recordFireLateness(long millis) {
+        fireLateness.record(millis);
+    }
+
+    /**
+     * a job fired later than the misfire threshold
+     */
+    public void recordMisfire() {
+        misfires.increment();
+    }
+
+    /**
+     * an execution dropped because its job was still running
+     */
+    public void recordSkippedExecution() {
+        skippedExecutions.increment();
+    }
+
+    /**
+     * an execution that waits for the running execution of its job
+     */
+    public void recordQueuedExecution() {
+        queuedExecutions.increment();
+    }
+
+    /**
+     * @param nanos time a tick of a shard took to poll and submit its due jobs
+     * @param jobs  number of jobs due at the tick
+     */
+    public void recordTick(long nanos, int jobs) {
+        tickDuration.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        jobsPerTick.record(jobs);
+    }
+
+    /**
+     * @return histogram of the execution times of all jobs in microseconds
+     */
+    public Histogram getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * @return histogram of the fire lateness of all jobs in milliseconds
+     */
+    public Histogram getFireLateness() {
+        return fireLateness;
+    }
+
+    /**
+     * @return histogram of the tick durations in microseconds
+     */
+    public Histogram getTickDuration() {
+        return tickDuration;
+    }
+
+    public Histogram getJobsPerTick() {
+        return jobsPerTick;
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getMisfires() {
+        return misfires.sum();
+    }
+
+    public long getSkippedExecutions() {
+        return skippedExecutions.sum();
+    }
+
+    public long getQueuedExecutions() {
+        return queuedExecutions.sum();
+    }
+}
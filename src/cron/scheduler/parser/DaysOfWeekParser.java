@@ -0,0 +1,45 @@
+package cron.scheduler.parser;
+
+import cron.scheduler.time.Timer;
+import cron.scheduler.time.WeekDay;
+
+/**
+ * The days of week are 0-7 where both 0 and 7 are Sunday, the field also accepts
+ * nL for the last day n of the month, ie 5L is the last Friday,
+ * and n#k for the k-th day n of the month, ie 1#2 is the second Monday.
+ * the bits of these items are laid out by {@link Timer}.
+ */
+public class DaysOfWeekParser extends FieldParser<WeekDay> {
+    public static final int MAX_NTH = 5;
+
+    public DaysOfWeekParser() {
+        super("days of week", WeekDay.MIN, WeekDay.MAX);
+    }
+
+    @Override
+    protected WeekDay create(int value) throws Exception {
+        return WeekDay.of(value);
+    }
+
+    /**
+     * the bit of Sunday as 7 is moved to 0, so each day has a single bit
+     */
+    @Override
+    public long parse(String expression) throws Exception {
+        long mask = super.parse(expression);
+        if ((mask & 1L << 7) == 0) return mask;
+        return mask & ~(1L << 7) | 1L;
+    }
+
+    @Override
+    long extension(Lexer lexer, int value) throws Exception {
+        if (value == NONE) return 0;
+        if (lexer.consume('L')) return 1L << Timer.LAST_WEEK_DAY_SHIFT + value % 7;
+        if (!lexer.consume('#')) return 0;
+        int start = lexer.position;
+        int nth = lexer.readNumber();
+        if (nth < 1 || nth > MAX_NTH)
+            throw error(lexer, start, "occurrence " + nth + " is out of range [1-" + MAX_NTH + "]");
+        return 1L << Timer.NTH_WEEK_DAY_SHIFT + 7 * (nth - 1) + value % 7;
+    }
+}
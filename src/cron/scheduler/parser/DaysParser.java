@@ -1,10 +1,29 @@
 package cron.scheduler.parser;
 
 import cron.scheduler.time.Day;
+import cron.scheduler.time.Timer;
 
+/**
+ * Besides the days, the days field accepts L for the last day of the month,
+ * nW for the weekday nearest to the day n in the same month and LW for the last weekday of the month.
+ * the bits of these items are laid out by {@link Timer}.
+ */
 public class DaysParser extends FieldParser<Day> {
-
     public DaysParser() {
-        super(Utilities.DAY_REGEX, Day.class);
+        super("days", Day.MIN, Day.MAX);
+    }
+
+    @Override
+    protected Day create(int value) throws Exception {
+        return Day.of(value);
+    }
+
+    @Override
+    long extension(Lexer lexer, int value) throws Exception {
+        if (value == NONE) {
+            if (!lexer.consume('L')) return 0;
+            return lexer.consume('W') ? Timer.LAST_WEEKDAY : Timer.LAST_DAY;
+        }
+        return lexer.consume('W') ? 1L << Timer.NEAREST_WEEKDAY_SHIFT + value : 0;
     }
 }
@@ -2,23 +2,46 @@ package cron.scheduler.parser;
 
 import cron.scheduler.time.TimeUnit;
 
-import java.util.*;
-import java.util.regex.Pattern;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
- * Field parser validates that the expression matches the right regex
- * and calculates the set of possibilities of the given expression
+ * Field parser validates the expression and compiles it to a bitmask of the possible values
+ * in a single pass over its characters.
+ * <p>
+ * The expression is a list of items separated by ',' where each item is on the form
+ * [* | V | V-V] optionally followed by /S, V is a single value and S is the step.
+ * A field can accept more items through {@link #extension}, ie L for the last day of the month,
+ * these are compiled to the bits above the values of the field.
  * <p>
  * min is the minimum value can be assigned to this field ie 0 for minutes 1 for months
  * max is the maximum value can be assigned to this field ie 59 for minutes 12 for months
  */
 abstract class FieldParser<T extends TimeUnit> {
-    private final String generalRegex;
-    private final Class<T> cls;
+    static final int NONE = -1;
+    private final String name;
+    private final int min;
+    private final int max;
+
+    protected FieldParser(String name, int min, int max) {
+        this.name = name;
+        this.min = min;
+        this.max = max;
+    }
 
-    protected FieldParser(String unitRegex, Class<T> cls) {
-        this.generalRegex = buildGeneralRegex(unitRegex);
-        this.cls = cls;
+    /**
+     * create the time unit of the given value, used to convert the bitmask to a set of units
+     */
+    protected abstract T create(int value) throws Exception;
+
+    /**
+     * parse an item special to this field at the current position of the lexer
+     *
+     * @param value the value the item starts with, NONE if it starts with a letter
+     * @return the bits of the item or 0 if there's no special item at the position
+     */
+    long extension(Lexer lexer, int value) throws Exception {
+        return 0;
     }
 
     /**
@@ -30,103 +53,127 @@ abstract class FieldParser<T extends TimeUnit> {
      * @return sorted set for all possibilities
      */
     public SortedSet<T> getPossibilitiesSet(String expression) throws Exception {
-        if (!checkValidExpression(expression))
-            throw new Exception("Invalid expression: " + expression + " when parsing " + cls.getName());
-        return buildPossibilities(expression);
+        long mask = parse(expression);
+        SortedSet<T> set = new TreeSet<>();
+        for (int i = min; i <= max; i++)
+            if ((mask & (1L << i)) != 0) set.add(create(i));
+        return set;
     }
 
-    public Integer getMin() {
-        try {
-            return cls.getConstructor(Integer.class).newInstance(1).getMin();
-        } catch (Exception ignored) {
-        }
-        return null;
+    /**
+     * compiles the expression to a bitmask where bit i is set if the value i is possible
+     * eg: for minute field and expression 0/15 -> bits 0,15,30 and 45 are set
+     *
+     * @return bitmask of all possibilities
+     * @throws Exception with the position of the first invalid character
+     */
+    public long parse(String expression) throws Exception {
+        Lexer lexer = new Lexer(expression);
+        long mask = 0;
+        do {
+            int from;
+            int to;
+            boolean single = false;
+            if (lexer.consume('*')) {
+                from = min;
+                to = max;
+            } else {
+                long special = extension(lexer, NONE);
+                if (special != 0) {
+                    mask |= special;
+                    continue;
+                }
+                from = readValue(lexer);
+                special = extension(lexer, from);
+                if (special != 0) {
+                    mask |= special;
+                    continue;
+                }
+                to = from;
+                if (lexer.consume('-')) {
+                    int start = lexer.position;
+                    to = readValue(lexer);
+                    if (to < from) throw error(lexer, start, "range end " + to + " is before its start " + from);
+                } else single = true;
+            }
+            int step = 1;
+            if (lexer.consume('/')) {
+                int start = lexer.position;
+                step = lexer.readNumber();
+                if (step < 1 || step > max) throw error(lexer, start, "step " + step + " is out of range [1-" + max + "]");
+                //a single value with a step means from this value till the max
+                if (single) to = max;
+            }
+            for (int i = from; i <= to; i += step) mask |= 1L << i;
+        } while (lexer.consume(','));
+        if (!lexer.atEnd())
+            throw error(lexer, lexer.position, "unexpected character '" + lexer.peek() + "'");
+        return mask;
     }
 
-    public Integer getMax() {
-        try {
-            return cls.getConstructor(Integer.class).newInstance(1).getMax();
-        } catch (Exception ignored) {
-        }
-        return null;
+    public int getMin() {
+        return min;
     }
 
-    private boolean checkValidExpression(String expression) {
-        return Pattern.matches(generalRegex, expression);
+    public int getMax() {
+        return max;
     }
 
-    /**
-     * general regex should be on the form ^\*|(R(-R)?(/R)?(,R(-R)?(/R)?))$
-     * where R is the single unit regex
-     *
-     * @param singleUnitRegex single value that can be assigned to this field
-     *                        ie [1-5]?[0-9] for minutes [0,1,...59]
-     *                        so the general regex must be
-     *                        ^\*|[1-5]?[0-9](-[1-5]?[0-9])?(/[1-5]?[0-9])?(,[1-5]?[0-9](-[1-5]?[0-9])?(/[1-5]?[0-9])?)*$
-     * @return the general regex
-     */
-    private String buildGeneralRegex(String singleUnitRegex) {
-        final String rangeRegex = singleUnitRegex + "(-" + singleUnitRegex + ")?";
-        final String stepRegex = rangeRegex + "(/" + singleUnitRegex + ")?";
-        final String listRegex = stepRegex + "(," + stepRegex + ")*";
-        String allRangeRegex = "\\*";
-        return "^" + allRangeRegex + "|" + "(" + listRegex + ")" + "$";
+    private int readValue(Lexer lexer) throws Exception {
+        int start = lexer.position;
+        int value = lexer.readNumber();
+        if (value < min || value > max)
+            throw error(lexer, start, "value " + value + " is out of range [" + min + "-" + max + "]");
+        return value;
     }
 
-    /**
-     * split the given expression by ',' and concatenate the generated possible values
-     *
-     * @param expression expression written by the usr
-     * @return sorted set of all possible values according to the given expression
-     */
-    private SortedSet<T> buildPossibilities(String expression) throws Exception {
-        SortedSet<T> set = new TreeSet<>();
-        if (expression.equals("*")) {
-            set.addAll(getRange(getMin(), getMax(), 1));
-            return set;
+    Exception error(Lexer lexer, int position, String message) {
+        return new Exception("Invalid expression: " + lexer.expression + " when parsing " + name +
+                ", " + message + " at position " + (position + 1));
+    }
+
+    class Lexer {
+        final String expression;
+        int position;
+
+        Lexer(String expression) {
+            this.expression = expression;
         }
-        String[] list = expression.split(",");
-        for (String interval : list) {
-            set.addAll(getValues(interval));
+
+        boolean atEnd() {
+            return position == expression.length();
         }
-        return set;
-    }
 
-    private ArrayList<T> getValues(String interval) throws Exception {
-        int step = 1;
-        int slashIdx = interval.indexOf('/');
-        //the step option is specified
-        if (slashIdx != -1) {
-            step = Integer.parseInt(interval.substring(slashIdx + 1));
-            interval = interval.substring(0, slashIdx);
+        char peek() {
+            return expression.charAt(position);
         }
-        int minusIdx = interval.indexOf('-');
-        //if only single unit in the regex
-        if (minusIdx == -1) {
-            if (slashIdx == -1) {
-                T child = cls.getConstructor(Integer.class).newInstance(Integer.parseInt(interval));
-                return new ArrayList<>(List.of(child));
-            } else return getRange(Integer.parseInt(interval), getMax(), step);
+
+        boolean consume(char c) {
+            if (atEnd() || peek() != c) return false;
+            position++;
+            return true;
+        }
+
+        boolean isDigit() {
+            return !atEnd() && peek() >= '0' && peek() <= '9';
         }
-        int from = Integer.parseInt(interval.substring(0, minusIdx));
-        int to = Integer.parseInt(interval.substring(minusIdx + 1));
-        if (from < getMin() || to > getMax())
-            throw new Error(
-                    "Out of boundaries\ngiven " + from + "while minimum is " + getMin() +
-                    "\ngiven " + to + "while maximum is " + getMax() +
-                    "for class " + cls.getName()
-            );
-
-        return getRange(from, to, step);
-    }
 
-    private ArrayList<T> getRange(Integer from, Integer to, Integer step) throws Exception {
-        ArrayList<T> values = new ArrayList<>();
-        if (from > to) return values;
-        for (Integer i = from; i <= to; i += step) {
-            T child = cls.getConstructor(Integer.class).newInstance(i);
-            values.add(child);
+        /**
+         * read the digits at the current position, values are at most 2 digits in all fields
+         */
+        int readNumber() throws Exception {
+            int start = position;
+            int value = 0;
+            while (isDigit() && position - start < 2) {
+                value = value * 10 + (peek() - '0');
+                position++;
+            }
+            if (position == start) {
+                if (atEnd()) throw error(this, position, "expected a number but the expression ended");
+                throw error(this, position, "expected a number but found '" + peek() + "'");
+            }
+            if (isDigit()) throw error(this, start, "number is too long");
+            return value;
         }
-        return values;
     }
 }
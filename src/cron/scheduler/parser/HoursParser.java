@@ -5,6 +5,11 @@ import cron.scheduler.time.Hour;
 public class HoursParser extends FieldParser<Hour> {
 
     public HoursParser() {
-        super(Utilities.HOUR_REGEX, Hour.class);
+        super("hours", Hour.MIN, Hour.MAX);
+    }
+
+    @Override
+    protected Hour create(int value) throws Exception {
+        return Hour.of(value);
     }
 }
@@ -5,7 +5,11 @@ import cron.scheduler.time.Minute;
 public class MinutesParser extends FieldParser<Minute> {
 
     public MinutesParser() {
-        super(Utilities.MINUTE_REGEX, Minute.class);
+        super("minutes", Minute.MIN, Minute.MAX);
     }
 
+    @Override
+    protected Minute create(int value) throws Exception {
+        return Minute.of(value);
+    }
 }
@@ -5,6 +5,11 @@ import cron.scheduler.time.Month;
 public class MonthsParser extends FieldParser<Month> {
 
     public MonthsParser() {
-        super(Utilities.MONTH_REGEX, Month.class);
+        super("months", Month.MIN, Month.MAX);
+    }
+
+    @Override
+    protected Month create(int value) throws Exception {
+        return Month.of(value);
     }
 }
@@ -0,0 +1,15 @@
+package cron.scheduler.parser;
+
+import cron.scheduler.time.Second;
+
+public class SecondsParser extends FieldParser<Second> {
+
+    public SecondsParser() {
+        super("seconds", Second.MIN, Second.MAX);
+    }
+
+    @Override
+    protected Second create(int value) throws Exception {
+        return Second.of(value);
+    }
+}
@@ -0,0 +1,37 @@
+package cron.scheduler.persistence;
+
+import java.util.Collection;
+
+/**
+ * Job persistence keeps the jobs of the scheduler across restarts.
+ * <p>
+ * The scheduler reads the persisted records once when it's created to rebuild its jobs,
+ * then reports each change of a persisted job. Only jobs added with a job type are persisted.
+ */
+public interface JobPersistence {
+
+    /**
+     * @return the jobs persisted before the scheduler is created
+     */
+    Collection<JobRecord> getRecords();
+
+    /**
+     * add the job or replace the record of the job with the same ID
+     */
+    void save(JobRecord record);
+
+    void start(String ID);
+
+    void stop(String ID);
+
+    void reschedule(String ID, String cronExpression);
+
+    void rename(String ID, String newID);
+
+    void remove(String ID);
+
+    /**
+     * write all the changes to the disk and release the files
+     */
+    void close();
+}
@@ -0,0 +1,145 @@
+package cron.scheduler.persistence;
+
+import cron.scheduler.job.MisfirePolicy;
+import cron.scheduler.job.OverlapPolicy;
+import cron.scheduler.time.DstGapPolicy;
+import cron.scheduler.time.DstOverlapPolicy;
+import cron.scheduler.time.ZonePolicy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+
+/**
+ * Job record is the persisted form of a job.
+ * <p>
+ * The runnable of the job isn't persisted, instead the job keeps the type and the data
+ * it's created from by the {@link JobTypeFactory} registered for this type.
+ */
+public class JobRecord {
+    private final String ID;
+    private final String cronExpression;
+    private final String jobType;
+    private final String jobData;
+    private final OverlapPolicy overlapPolicy;
+    private final MisfirePolicy misfirePolicy;
+    private final ZonePolicy zonePolicy;
+    private final boolean started;
+
+    /**
+     * a record of a job in the default zone of the JVM
+     */
+    public JobRecord(String ID, String cronExpression, String jobType, String jobData,
+                     OverlapPolicy overlapPolicy, MisfirePolicy misfirePolicy, boolean started) {
+        this(ID, cronExpression, jobType, jobData, overlapPolicy, misfirePolicy, ZonePolicy.systemDefault(), started);
+    }
+
+    public JobRecord(String ID, String cronExpression, String jobType, String jobData,
+                     OverlapPolicy overlapPolicy, MisfirePolicy misfirePolicy, ZonePolicy zonePolicy, boolean started) {
+        this.ID = ID;
+        this.cronExpression = cronExpression;
+        this.jobType = jobType;
+        this.jobData = jobData;
+        this.overlapPolicy = overlapPolicy;
+        this.misfirePolicy = misfirePolicy;
+        this.zonePolicy = zonePolicy;
+        this.started = started;
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public String getJobData() {
+        return jobData;
+    }
+
+    public OverlapPolicy getOverlapPolicy() {
+        return overlapPolicy;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    public ZonePolicy getZonePolicy() {
+        return zonePolicy;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    JobRecord withID(String ID) {
+        return new JobRecord(ID, cronExpression, jobType, jobData, overlapPolicy, misfirePolicy, zonePolicy, started);
+    }
+
+    JobRecord withCronExpression(String cronExpression) {
+        return new JobRecord(ID, cronExpression, jobType, jobData, overlapPolicy, misfirePolicy, zonePolicy, started);
+    }
+
+    JobRecord withStarted(boolean started) {
+        return new JobRecord(ID, cronExpression, jobType, jobData, overlapPolicy, misfirePolicy, zonePolicy, started);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        writeString(out, ID);
+        writeString(out, cronExpression);
+        writeString(out, jobType);
+        writeString(out, jobData);
+        out.writeByte(overlapPolicy.ordinal());
+        out.writeByte(misfirePolicy.ordinal());
+        writeString(out, zonePolicy.getZone().getId());
+        out.writeByte(zonePolicy.getGapPolicy().ordinal());
+        out.writeByte(zonePolicy.getOverlapPolicy().ordinal());
+        out.writeBoolean(started);
+    }
+
+    static JobRecord readFrom(DataInput in) throws IOException {
+        return new JobRecord(
+                readString(in),
+                readString(in),
+                readString(in),
+                readString(in),
+                OverlapPolicy.values()[in.readByte()],
+                MisfirePolicy.values()[in.readByte()],
+                new ZonePolicy(
+                        ZoneId.of(readString(in)),
+                        DstGapPolicy.values()[in.readByte()],
+                        DstOverlapPolicy.values()[in.readByte()]
+                ),
+                in.readBoolean()
+        );
+    }
+
+    /**
+     * strings are written as their UTF-8 length then bytes, as job data may be longer than writeUTF allows
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,15 @@
+package cron.scheduler.persistence;
+
+/**
+ * Job type factory creates the runnable of a persisted job from its data,
+ * it's registered for a job type through {@link cron.scheduler.SchedulerConfig#registerJobType}.
+ */
+public interface JobTypeFactory {
+
+    /**
+     * @param jobData the data the job is added with
+     * @return the runnable to be run when the job is fired
+     * @throws Exception if the data isn't valid for this type
+     */
+    Runnable create(String jobData) throws Exception;
+}
@@ -0,0 +1,309 @@
+package cron.scheduler.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Persistence of the jobs as a snapshot file and an append-only journal of the changes after it.
+ * <p>
+ * The journal is a memory-mapped file, so appending a change is a copy to memory that survives a crash of the process.
+ * A background thread forces the written changes to the disk every commit interval,
+ * so all the changes of this interval are committed together by a single force [group commit].
+ * <p>
+ * Every snapshot interval, when the journal is half full and on close, all the records are written to a new snapshot
+ * and the journal starts over. Each journal entry is on the form [length, generation, crc, payload]
+ * where the generation is the one of the snapshot it follows, so the entries already in the snapshot
+ * and an entry torn by a crash are skipped by the recovery.
+ */
+public class MappedJournal implements JobPersistence {
+    public static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+    public static final long DEFAULT_COMMIT_INTERVAL = 10;
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 10 * 60_000;
+
+    private static final int SNAPSHOT_MAGIC = 0x43524F4E;
+    private static final int HEADER_SIZE = 12;
+    private static final byte SAVE = 1;
+    private static final byte START = 2;
+    private static final byte STOP = 3;
+    private static final byte RESCHEDULE = 4;
+    private static final byte RENAME = 5;
+    private static final byte REMOVE = 6;
+
+    private final Path snapshotFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final LinkedHashMap<String, JobRecord> records;
+    private final long commitInterval;
+    private final long snapshotInterval;
+    private final Thread committer;
+    private final Logger logger;
+    private int generation;
+    private boolean dirty;
+    private long lastSnapshot;
+    private volatile boolean closed;
+
+    public MappedJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_CAPACITY, DEFAULT_COMMIT_INTERVAL, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * open the journal in the given directory and recover the records of its snapshot and journal files
+     *
+     * @param capacity               maximum size of the journal file in bytes
+     * @param commitIntervalMillis   time between two forces of the journal to the disk
+     * @param snapshotIntervalMillis time between two snapshots
+     * @throws IOException if the files can't be read or created
+     */
+    public MappedJournal(Path directory, int capacity, long commitIntervalMillis, long snapshotIntervalMillis) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve("jobs.snapshot");
+        this.records = new LinkedHashMap<>();
+        this.commitInterval = commitIntervalMillis;
+        this.snapshotInterval = snapshotIntervalMillis;
+        this.logger = Logger.getLogger(MappedJournal.class.getName());
+        readSnapshot();
+        Path journalFile = directory.resolve("jobs.journal");
+        this.channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+        replayJournal();
+        this.lastSnapshot = System.currentTimeMillis();
+        this.committer = new Thread(this::commitLoop, "cron-scheduler-journal");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    @Override
+    public synchronized Collection<JobRecord> getRecords() {
+        return new ArrayList<>(records.values());
+    }
+
+    @Override
+    public void save(JobRecord record) {
+        write(encode(SAVE, record));
+    }
+
+    @Override
+    public void start(String ID) {
+        write(encode(START, null, ID));
+    }
+
+    @Override
+    public void stop(String ID) {
+        write(encode(STOP, null, ID));
+    }
+
+    @Override
+    public void reschedule(String ID, String cronExpression) {
+        write(encode(RESCHEDULE, null, ID, cronExpression));
+    }
+
+    @Override
+    public void rename(String ID, String newID) {
+        write(encode(RENAME, null, ID, newID));
+    }
+
+    @Override
+    public void remove(String ID) {
+        write(encode(REMOVE, null, ID));
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        committer.interrupt();
+        synchronized (this) {
+            compact();
+            buffer.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to close the journal", e);
+            }
+        }
+    }
+
+    /**
+     * append the change to the journal then apply it to the records
+     */
+    private synchronized void write(byte[] payload) {
+        if (closed || !append(payload)) return;
+        try {
+            apply(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean append(byte[] payload) {
+        //the entry is followed by an empty header marking the end of the journal
+        int size = HEADER_SIZE + payload.length + 4;
+        if (buffer.remaining() < size) compact();
+        if (buffer.remaining() < size) {
+            logger.log(Level.SEVERE, "Journal is full, a change of " + payload.length + " bytes is dropped");
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(payload.length).putInt(generation).putInt((int) crc.getValue()).put(payload);
+        buffer.putInt(buffer.position(), 0);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * write all the records to a new snapshot of the next generation and start the journal over.
+     * the snapshot replaces the old one atomically, so a crash in the middle keeps the old snapshot and journal.
+     */
+    private void compact() {
+        if (buffer.position() == 0) return;
+        try {
+            writeSnapshot(generation + 1);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to write the snapshot", e);
+            return;
+        }
+        generation++;
+        buffer.position(0);
+        buffer.putInt(0, 0);
+        lastSnapshot = System.currentTimeMillis();
+    }
+
+    private void commitLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(commitInterval);
+            } catch (InterruptedException e) {
+                return;
+            }
+            boolean force;
+            synchronized (this) {
+                if (closed) return;
+                boolean due = System.currentTimeMillis() - lastSnapshot >= snapshotInterval;
+                if (due || buffer.position() > buffer.capacity() / 2) compact();
+                force = dirty;
+                dirty = false;
+            }
+            if (force) buffer.force();
+        }
+    }
+
+    private void writeSnapshot(int snapshotGeneration) throws IOException {
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(snapshotGeneration);
+            out.writeInt(records.size());
+            for (JobRecord record : records.values()) record.writeTo(out);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Invalid snapshot file: " + snapshotFile);
+            generation = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                JobRecord record = JobRecord.readFrom(in);
+                records.put(record.getID(), record);
+            }
+        }
+    }
+
+    /**
+     * apply the entries of the current generation till the end of the journal or the first invalid entry,
+     * the next entries are appended from there.
+     */
+    private void replayJournal() throws IOException {
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int entryGeneration = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || entryGeneration != generation || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                logger.log(Level.WARNING, "Journal entry at " + start + " is torn, the journal is recovered till it");
+                buffer.position(start);
+                break;
+            }
+            apply(payload);
+        }
+    }
+
+    private static byte[] encode(byte operation, JobRecord record, String... values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(operation);
+            if (record != null) record.writeTo(out);
+            for (String value : values) JobRecord.writeString(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte operation = in.readByte();
+        if (operation == SAVE) {
+            JobRecord record = JobRecord.readFrom(in);
+            records.put(record.getID(), record);
+            return;
+        }
+        String ID = JobRecord.readString(in);
+        switch (operation) {
+            case START:
+                records.computeIfPresent(ID, (key, record) -> record.withStarted(true));
+                break;
+            case STOP:
+                records.computeIfPresent(ID, (key, record) -> record.withStarted(false));
+                break;
+            case RESCHEDULE:
+                String cronExpression = JobRecord.readString(in);
+                records.computeIfPresent(ID, (key, record) -> record.withCronExpression(cronExpression));
+                break;
+            case RENAME:
+                String newID = JobRecord.readString(in);
+                JobRecord record = records.remove(ID);
+                if (record != null) records.put(newID, record.withID(newID));
+                break;
+            case REMOVE:
+                records.remove(ID);
+                break;
+            default:
+                throw new IOException("Unknown journal operation: " + operation);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package cron.scheduler.store;
+
+import cron.scheduler.job.Job;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Job store keeps the started jobs of the scheduler
+ * and answers which of them are due at a given time.
+ * <p>
+ * Jobs are ordered by their stored next execution time, so a job has to be scheduled before getting added.
+ * <p>
+ * Implementations are not thread safe, the scheduler synchronizes access to the store.
+ */
+public interface JobStore {
+
+    /**
+     * @return true if the job was added, false if it's already stored
+     */
+    boolean add(Job job);
+
+    /**
+     * add many jobs at once, none of them should be already stored
+     */
+    default void addAll(Collection<Job> jobs) {
+        for (Job job : jobs) add(job);
+    }
+
+    /**
+     * @return true if the job was removed, false if it wasn't stored
+     */
+    boolean remove(Job job);
+
+    boolean contains(Job job);
+
+    void clear();
+
+    int size();
+
+    /**
+     * The time the scheduler should wake up at to poll the due jobs,
+     * it may be earlier than the nearest execution time but never later.
+     *
+     * @return milliseconds since epoch, Long.MAX_VALUE if the store is empty
+     */
+    long nextExecutionTime();
+
+    /**
+     * Advance the store to the given time and collect the jobs whose next execution time has come.
+     * Due jobs stay in the store and get rescheduled for their next execution through {@link Job#reschedule},
+     * so each one keeps the time it was due at.
+     *
+     * @param epochMillis milliseconds since epoch of the current tick
+     * @return jobs to be executed now
+     */
+    List<Job> pollDueJobs(long epochMillis);
+}
@@ -0,0 +1,19 @@
+package cron.scheduler.store;
+
+public enum JobStoreType {
+    PRIORITY_QUEUE,
+    TIMING_WHEEL;
+
+    /**
+     * @param epochMillis the current time of the clock the store is polled by
+     */
+    public JobStore create(long epochMillis) {
+        switch (this) {
+            case PRIORITY_QUEUE:
+                return new PriorityQueueJobStore();
+            case TIMING_WHEEL:
+            default:
+                return new TimingWheelJobStore(epochMillis / 1000);
+        }
+    }
+}
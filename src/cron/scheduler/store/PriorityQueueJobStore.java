@@ -0,0 +1,72 @@
+package cron.scheduler.store;
+
+import cron.scheduler.job.Job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The original job store, a priority queue sorted according to the jobs next execution time.
+ * Kept for comparison with the timing wheel.
+ */
+public class PriorityQueueJobStore implements JobStore {
+    private PriorityQueue<Job> jobsQueue = new PriorityQueue<>();
+
+    @Override
+    public boolean add(Job job) {
+        if (jobsQueue.contains(job)) return false;
+        return jobsQueue.add(job);
+    }
+
+    /**
+     * rebuild the queue from the stored and the new jobs in one linear heapify
+     * instead of adding the jobs one by one
+     */
+    @Override
+    public void addAll(Collection<Job> jobs) {
+        ArrayList<Job> all = new ArrayList<>(jobsQueue.size() + jobs.size());
+        all.addAll(jobsQueue);
+        all.addAll(jobs);
+        jobsQueue = new PriorityQueue<>(all);
+    }
+
+    @Override
+    public boolean remove(Job job) {
+        return jobsQueue.remove(job);
+    }
+
+    @Override
+    public boolean contains(Job job) {
+        return jobsQueue.contains(job);
+    }
+
+    @Override
+    public void clear() {
+        jobsQueue.clear();
+    }
+
+    @Override
+    public int size() {
+        return jobsQueue.size();
+    }
+
+    @Override
+    public long nextExecutionTime() {
+        return jobsQueue.isEmpty() ? Long.MAX_VALUE : jobsQueue.peek().getNextExecutionTime();
+    }
+
+    @Override
+    public List<Job> pollDueJobs(long epochMillis) {
+        ArrayList<Job> jobsToInvoke = new ArrayList<>();
+        while (!jobsQueue.isEmpty() && jobsQueue.peek().getNextExecutionTime() <= epochMillis) {
+            jobsToInvoke.add(jobsQueue.poll());
+        }
+        for (Job job : jobsToInvoke) {
+            job.reschedule(epochMillis);
+            jobsQueue.add(job);
+        }
+        return jobsToInvoke;
+    }
+}
@@ -0,0 +1,164 @@
+package cron.scheduler.store;
+
+import cron.scheduler.job.Job;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel of five levels [seconds, minutes, hours, days, months].
+ * <p>
+ * Each job is placed in a slot according to how far its next execution second is,
+ * ie a job due in 10 minutes is placed in the minutes wheel, a job due in 5 hours in the hours wheel.
+ * When a wheel completes a round the next slot of the upper wheel is cascaded down,
+ * so add, remove and finding due jobs are O(1) amortized instead of O(log n) for the priority queue.
+ * <p>
+ * As all months are 31 days, the months wheel covers the whole year and
+ * any job farther than that is kept in an overflow set re-placed with every months cascade.
+ */
+public class TimingWheelJobStore implements JobStore {
+    private static final int[] SLOTS = {60, 60, 24, 31, 12};
+    private static final long[] SPANS = {1, 60, 60 * 60, 60 * 60 * 24, 60 * 60 * 24 * 31};
+    private static final int MONTHS = SLOTS.length - 1;
+
+    private final List<List<Set<Job>>> wheels;
+    private final Set<Job> overflow;
+    private final HashMap<Job, Entry> entries;
+    private long currentSecond;
+
+    TimingWheelJobStore(long currentSecond) {
+        this.wheels = new ArrayList<>();
+        for (int slots : SLOTS) {
+            List<Set<Job>> wheel = new ArrayList<>(slots);
+            for (int i = 0; i < slots; i++) wheel.add(new HashSet<>());
+            wheels.add(wheel);
+        }
+        this.overflow = new HashSet<>();
+        this.entries = new HashMap<>();
+        this.currentSecond = currentSecond;
+    }
+
+    @Override
+    public boolean add(Job job) {
+        if (entries.containsKey(job)) return false;
+        //the current second is already ticked, so the earliest possible slot is the next second
+        place(job, Math.max(currentSecond + 1, job.getNextExecutionTime() / 1000));
+        return true;
+    }
+
+    @Override
+    public boolean remove(Job job) {
+        Entry entry = entries.remove(job);
+        if (entry == null) return false;
+        entry.slot.remove(job);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Job job) {
+        return entries.containsKey(job);
+    }
+
+    @Override
+    public void clear() {
+        for (List<Set<Job>> wheel : wheels)
+            for (Set<Job> slot : wheel) slot.clear();
+        overflow.clear();
+        entries.clear();
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * the start of the nearest non empty slot over all wheels,
+     * the jobs of a slot in the upper wheels are due at or after the start of this slot.
+     */
+    @Override
+    public long nextExecutionTime() {
+        if (entries.isEmpty()) return Long.MAX_VALUE;
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < SLOTS.length; level++) {
+            long slotsSinceEpoch = currentSecond / SPANS[level];
+            for (int i = 1; i <= SLOTS[level]; i++) {
+                if (wheels.get(level).get((int) ((slotsSinceEpoch + i) % SLOTS[level])).isEmpty()) continue;
+                next = Math.min(next, (slotsSinceEpoch + i) * SPANS[level]);
+                break;
+            }
+        }
+        if (!overflow.isEmpty()) {
+            long round = SPANS[MONTHS] * SLOTS[MONTHS];
+            next = Math.min(next, (currentSecond / round + 1) * round);
+        }
+        return next * 1000;
+    }
+
+    @Override
+    public List<Job> pollDueJobs(long epochMillis) {
+        long epochSecond = epochMillis / 1000;
+        ArrayList<Job> candidates = new ArrayList<>();
+        while (currentSecond < epochSecond) {
+            currentSecond++;
+            cascade();
+            Set<Job> slot = wheels.get(0).get((int) (currentSecond % SLOTS[0]));
+            candidates.addAll(slot);
+            slot.clear();
+        }
+        ArrayList<Job> jobsToInvoke = new ArrayList<>();
+        for (Job job : candidates) {
+            entries.remove(job);
+            if (job.getNextExecutionTime() <= epochMillis) {
+                jobsToInvoke.add(job);
+                job.reschedule(epochMillis);
+            }
+            place(job, Math.max(currentSecond + 1, job.getNextExecutionTime() / 1000));
+        }
+        return jobsToInvoke;
+    }
+
+    /**
+     * when a wheel completes a round, move the jobs of the current slot of the upper wheel to the lower wheels
+     * higher wheels are cascaded first, so a job can fall through more than one wheel in the same second
+     */
+    private void cascade() {
+        if (currentSecond % (SPANS[MONTHS] * SLOTS[MONTHS]) == 0) replace(overflow);
+        for (int level = SLOTS.length - 1; level > 0; level--) {
+            if (currentSecond % SPANS[level] != 0) continue;
+            replace(wheels.get(level).get((int) ((currentSecond / SPANS[level]) % SLOTS[level])));
+        }
+    }
+
+    private void replace(Set<Job> slot) {
+        ArrayList<Job> jobs = new ArrayList<>(slot);
+        slot.clear();
+        for (Job job : jobs) place(job, entries.remove(job).second);
+    }
+
+    private void place(Job job, long second) {
+        long delay = second - currentSecond;
+        Set<Job> slot = overflow;
+        for (int level = 0; level < SLOTS.length; level++) {
+            if (delay < SPANS[level] * SLOTS[level]) {
+                slot = wheels.get(level).get((int) ((second / SPANS[level]) % SLOTS[level]));
+                break;
+            }
+        }
+        slot.add(job);
+        entries.put(job, new Entry(second, slot));
+    }
+
+    private static class Entry {
+        final long second;
+        final Set<Job> slot;
+
+        Entry(long second, Set<Job> slot) {
+            this.second = second;
+            this.slot = slot;
+        }
+    }
+}
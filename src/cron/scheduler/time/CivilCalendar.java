@@ -0,0 +1,80 @@
+package cron.scheduler.time;
+
+/**
+ * Civil calendar converts between days since epoch and proleptic Gregorian dates with integer arithmetic only,
+ * so the timer can walk the calendar without creating any date object.
+ * <p>
+ * The conversions count the years from March, so the leap day is the last day of the year
+ * and the days before each month follow a linear formula [H. Hinnant, chrono-compatible low-level date algorithms].
+ */
+final class CivilCalendar {
+    private static final int[] DAYS_IN_MONTH = {0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int DAYS_IN_ERA = 146097;
+    //days from 0000-03-01 to 1970-01-01
+    private static final int EPOCH_SHIFT = 719468;
+
+    private CivilCalendar() {
+    }
+
+    static boolean isLeap(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int daysInMonth(int month, boolean leap) {
+        return month == 2 && leap ? 29 : DAYS_IN_MONTH[month];
+    }
+
+    /**
+     * @return days since epoch of the given date
+     */
+    static long toEpochDay(long year, int month, int day) {
+        if (month <= 2) year--;
+        long era = Math.floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_IN_ERA + dayOfEra - EPOCH_SHIFT;
+    }
+
+    /**
+     * @return the year of the given days since epoch
+     */
+    static long yearOf(long epochDay) {
+        long shifted = epochDay + EPOCH_SHIFT;
+        long era = Math.floorDiv(shifted, DAYS_IN_ERA);
+        long dayOfEra = shifted - era * DAYS_IN_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        return yearOfEra + era * 400 + (monthIndex >= 10 ? 1 : 0);
+    }
+
+    /**
+     * @return the month [1-12] of the given days since epoch
+     */
+    static int monthOf(long epochDay) {
+        long dayOfYear = dayOfYear(epochDay);
+        int monthIndex = (int) ((5 * dayOfYear + 2) / 153);
+        return monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+    }
+
+    /**
+     * @return the day of month [1-31] of the given days since epoch
+     */
+    static int dayOf(long epochDay) {
+        long dayOfYear = dayOfYear(epochDay);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        return (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+    }
+
+    /**
+     * @return days since the first of March of the year of the given days since epoch
+     */
+    private static long dayOfYear(long epochDay) {
+        long shifted = epochDay + EPOCH_SHIFT;
+        long era = Math.floorDiv(shifted, DAYS_IN_ERA);
+        long dayOfEra = shifted - era * DAYS_IN_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    }
+}
@@ -1,18 +1,38 @@
 package cron.scheduler.time;
 
 public class Day extends TimeUnit {
+    public static final int MIN = 1;
+    public static final int MAX = 31;
+    private static final Day[] VALUES = new Day[MAX + 1];
 
-    public Day(Integer value) throws Exception {
+    static {
+        for (int i = MIN; i <= MAX; i++) VALUES[i] = new Day(i);
+    }
+
+    private Day(int value) {
         super(value);
     }
 
+    public static Day of(int value) throws Exception {
+        checkBoundaries(value, MIN, MAX);
+        return VALUES[value];
+    }
+
+    public Day plus(int amount) {
+        return VALUES[shift(amount)];
+    }
+
+    public Day minus(int amount) {
+        return VALUES[shift(-amount)];
+    }
+
     @Override
-    public Integer getMin() {
-        return 1;
+    public int getMin() {
+        return MIN;
     }
 
     @Override
-    public Integer getMax() {
-        return 31;
+    public int getMax() {
+        return MAX;
     }
 }
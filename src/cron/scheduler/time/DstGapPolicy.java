@@ -0,0 +1,16 @@
+package cron.scheduler.time;
+
+/**
+ * What to do with an execution time that doesn't exist in the zone of the job,
+ * as the clocks are moved forward over it ie 02:30 when the clocks jump from 02:00 to 03:00.
+ */
+public enum DstGapPolicy {
+    /**
+     * fire at the first instant after the gap, the execution times in the same gap are fired once
+     */
+    FIRE_AFTER_GAP,
+    /**
+     * drop the execution times in the gap
+     */
+    SKIP
+}
@@ -0,0 +1,20 @@
+package cron.scheduler.time;
+
+/**
+ * What to do with an execution time that happens twice in the zone of the job,
+ * as the clocks are moved back over it ie 01:30 when the clocks go back from 02:00 to 01:00.
+ */
+public enum DstOverlapPolicy {
+    /**
+     * fire at the first occurrence only, with the offset before the transition
+     */
+    FIRE_FIRST,
+    /**
+     * fire at the second occurrence only, with the offset after the transition
+     */
+    FIRE_SECOND,
+    /**
+     * fire at both occurrences
+     */
+    FIRE_BOTH
+}
@@ -1,18 +1,38 @@
 package cron.scheduler.time;
 
 public class Hour extends TimeUnit {
+    public static final int MIN = 0;
+    public static final int MAX = 23;
+    private static final Hour[] VALUES = new Hour[MAX + 1];
 
-    public Hour(Integer value) throws Exception {
+    static {
+        for (int i = MIN; i <= MAX; i++) VALUES[i] = new Hour(i);
+    }
+
+    private Hour(int value) {
         super(value);
     }
 
+    public static Hour of(int value) throws Exception {
+        checkBoundaries(value, MIN, MAX);
+        return VALUES[value];
+    }
+
+    public Hour plus(int amount) {
+        return VALUES[shift(amount)];
+    }
+
+    public Hour minus(int amount) {
+        return VALUES[shift(-amount)];
+    }
+
     @Override
-    public Integer getMin() {
-        return 0;
+    public int getMin() {
+        return MIN;
     }
 
     @Override
-    public Integer getMax() {
-        return 23;
+    public int getMax() {
+        return MAX;
     }
 }
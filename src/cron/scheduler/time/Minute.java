@@ -1,18 +1,38 @@
 package cron.scheduler.time;
 
 public class Minute extends TimeUnit {
+    public static final int MIN = 0;
+    public static final int MAX = 59;
+    private static final Minute[] VALUES = new Minute[MAX + 1];
 
-    public Minute(Integer value) throws Exception {
+    static {
+        for (int i = MIN; i <= MAX; i++) VALUES[i] = new Minute(i);
+    }
+
+    private Minute(int value) {
         super(value);
     }
 
+    public static Minute of(int value) throws Exception {
+        checkBoundaries(value, MIN, MAX);
+        return VALUES[value];
+    }
+
+    public Minute plus(int amount) {
+        return VALUES[shift(amount)];
+    }
+
+    public Minute minus(int amount) {
+        return VALUES[shift(-amount)];
+    }
+
     @Override
-    public Integer getMin() {
-        return 0;
+    public int getMin() {
+        return MIN;
     }
 
     @Override
-    public Integer getMax() {
-        return 59;
+    public int getMax() {
+        return MAX;
     }
 }
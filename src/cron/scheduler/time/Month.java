@@ -1,18 +1,38 @@
 package cron.scheduler.time;
 
-public class Month extends TimeUnit{
+public class Month extends TimeUnit {
+    public static final int MIN = 1;
+    public static final int MAX = 12;
+    private static final Month[] VALUES = new Month[MAX + 1];
 
-    public Month(Integer value) throws Exception {
+    static {
+        for (int i = MIN; i <= MAX; i++) VALUES[i] = new Month(i);
+    }
+
+    private Month(int value) {
         super(value);
     }
 
+    public static Month of(int value) throws Exception {
+        checkBoundaries(value, MIN, MAX);
+        return VALUES[value];
+    }
+
+    public Month plus(int amount) {
+        return VALUES[shift(amount)];
+    }
+
+    public Month minus(int amount) {
+        return VALUES[shift(-amount)];
+    }
+
     @Override
-    public Integer getMin() {
-        return 1;
+    public int getMin() {
+        return MIN;
     }
 
     @Override
-    public Integer getMax() {
-        return 12;
+    public int getMax() {
+        return MAX;
     }
 }
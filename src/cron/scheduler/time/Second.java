@@ -0,0 +1,38 @@
+package cron.scheduler.time;
+
+public class Second extends TimeUnit {
+    public static final int MIN = 0;
+    public static final int MAX = 59;
+    private static final Second[] VALUES = new Second[MAX + 1];
+
+    static {
+        for (int i = MIN; i <= MAX; i++) VALUES[i] = new Second(i);
+    }
+
+    private Second(int value) {
+        super(value);
+    }
+
+    public static Second of(int value) throws Exception {
+        checkBoundaries(value, MIN, MAX);
+        return VALUES[value];
+    }
+
+    public Second plus(int amount) {
+        return VALUES[shift(amount)];
+    }
+
+    public Second minus(int amount) {
+        return VALUES[shift(-amount)];
+    }
+
+    @Override
+    public int getMin() {
+        return MIN;
+    }
+
+    @Override
+    public int getMax() {
+        return MAX;
+    }
+}
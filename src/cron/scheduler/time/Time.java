@@ -1,10 +1,10 @@
 package cron.scheduler.time;
 
 class Time {
-    Month month;
-    Day day;
-    Hour hour;
-    Minute minute;
+    final Month month;
+    final Day day;
+    final Hour hour;
+    final Minute minute;
 
     public Time(Month month, Day day, Hour hour, Minute minute) {
         this.month = month;
@@ -27,23 +27,25 @@ class Time {
      * @param nextExecution time for command next execution
      * @return remaining minutes to run the command
      */
-    public Integer remainingMinutesToReach(Time nextExecution) {
-        int minutes = (nextExecution.minute.getValue() - this.minute.getValue());
+    public int remainingMinutesToReach(Time nextExecution) {
+        int minutes = nextExecution.minute.getValue() - this.minute.getValue();
+        int hours = nextExecution.hour.getValue() - this.hour.getValue();
+        int days = nextExecution.day.getValue() - this.day.getValue();
+        int months = nextExecution.month.getValue() - this.month.getValue();
+        //borrow from the upper unit when the lower one is negative
         if (minutes < 0) {
             minutes += 60;
-            nextExecution.hour.decreaseVal(1);
+            hours--;
         }
-        int hours = (nextExecution.hour.getValue() - this.hour.getValue());
         if (hours < 0) {
             hours += 24;
-            nextExecution.day.decreaseVal(1);
+            days--;
         }
-        int days = (nextExecution.day.getValue() - this.day.getValue());
         if (days < 0) {
             days += 31;
-            nextExecution.month.decreaseVal(1);
+            months--;
         }
-        int months = nextExecution.month.getValue() - this.month.getValue();
+        if (months < 0) months += 12;
         return minutes + hours * 60 + days * 24 * 60 + months * 31 * 24 * 60;
     }
 }
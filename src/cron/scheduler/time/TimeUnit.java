@@ -1,33 +1,47 @@
 package cron.scheduler.time;
 
+/**
+ * Time unit is an immutable value of a time field.
+ * <p>
+ * Each unit type keeps a preallocated table of all its valid values,
+ * so units are shared flyweights created through the static of method ie Minute.of(5),
+ * and the arithmetic returns another unit instead of changing this one.
+ */
 public abstract class TimeUnit implements Comparable<TimeUnit> {
-    private Integer value;
+    private final int value;
 
-    public TimeUnit(Integer value) throws Exception {
-        if (value > getMax() || value < getMin()) throw new Exception("Out of boundaries");
+    TimeUnit(int value) {
         this.value = value;
     }
 
-    public Integer getValue() {
+    public int getValue() {
         return this.value;
     }
 
-    public abstract Integer getMin();
+    public abstract int getMin();
 
-    public abstract Integer getMax();
-
-    public void increaseVal(Integer value) {
-        this.value = ((this.value + value) % (getMax() + 1));
-        this.value = Math.max(this.value, getMin());
+    public abstract int getMax();
 
+    /**
+     * @return the value after moving the given amount forward [or backward if negative]
+     * wrapping around the range of the unit, ie 23 hours + 2 = 1
+     */
+    int shift(int amount) {
+        int range = getMax() - getMin() + 1;
+        return getMin() + Math.floorMod(value - getMin() + amount, range);
     }
 
-    public void decreaseVal(Integer value) {
-        this.value = ((this.value - value + getMax() + 1) % (getMax() + 1));
+    static void checkBoundaries(int value, int min, int max) throws Exception {
+        if (value > max || value < min) throw new Exception("Out of boundaries");
     }
 
     @Override
     public int compareTo(TimeUnit timeUnit) {
-        return this.value - timeUnit.getValue();
+        return Integer.compare(this.value, timeUnit.getValue());
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
     }
 }
@@ -1,75 +1,394 @@
 package cron.scheduler.time;
 
-import java.time.LocalDateTime;
-import java.util.Objects;
+import java.time.Clock;
 import java.util.SortedSet;
 
+/**
+ * Timer is the compiled form of a cron expression.
+ * <p>
+ * Each field is stored as a bitmask where bit i is set if the value i is allowed,
+ * ie minutes 0,15,30,45 -> bits 0,15,30 and 45 of the minutes mask.
+ * The seconds mask is only bit 0 for expressions without a seconds field, so they fire at the start of the minute.
+ * <p>
+ * The absolute next execution time follows the real calendar [month lengths and leap years].
+ * The days allowed in a month are precomputed for each length of a month, restricted to the days the month has,
+ * so an impossible date like 31/4 is skipped by a single bit scan instead of stepping day by day,
+ * and a schedule matching only impossible dates like 30/2 is rejected when the timer is created.
+ * Finding the next execution time is a few bit scans and integer calendar arithmetic without any allocation.
+ * <p>
+ * The days of week and the days relative to the end of the month or to the weekends [L, W and #]
+ * depend only on the length of the month and the day of week it starts at, so the days allowed are precomputed
+ * for each of these 4 x 7 shapes of a month and the search looks up the shape of the month instead of checking each day.
+ * As in cron, a day matches if it matches the days or the days of week when both are restricted,
+ * a field matching all the days [ie *] leaves the day to the other field.
+ * <p>
+ * The timer has no zone, the schedule is matched against the local times of the {@link ZonePolicy} given to the search,
+ * so the jobs of the same expression share the timer whatever their zones are.
+ */
 public class Timer {
-    private final SortedSet<Month> months;
-    private final SortedSet<Day> days;
-    private final SortedSet<Hour> hours;
-    private final SortedSet<Minute> minutes;
+    //layout of the days: bits 1-31 are the days, L is bit 0, LW is bit 32 and nW is bit 32 + n
+    public static final long DAYS = 0xFFFFFFFEL;
+    public static final long LAST_DAY = 1L;
+    public static final long LAST_WEEKDAY = 1L << 32;
+    public static final int NEAREST_WEEKDAY_SHIFT = 32;
+    //layout of the days of week from Sunday 0: bits 0-6 are the days, nL is bit 8 + n and n#k is bit 15 + 7 * (k - 1) + n
+    public static final long WEEK_DAYS = 0x7FL;
+    public static final int LAST_WEEK_DAY_SHIFT = 8;
+    public static final int NTH_WEEK_DAY_SHIFT = 15;
+    //set in the days of week when a day matching either the days or the days of week is allowed, otherwise both must match.
+    //a day field left as * matches all days, so the flag only matters when both fields are restricted.
+    public static final long EITHER_DAY = 1L << 63;
+    private static final int MINUTES_IN_DAY = 24 * 60;
+    private static final int MINUTES_IN_YEAR = 12 * 31 * MINUTES_IN_DAY;
+    private static final int SATURDAY = 6;
+    private static final int SUNDAY = 0;
 
-    public Timer(SortedSet<Minute> minutes, SortedSet<Hour> hours, SortedSet<Day> days, SortedSet<Month> months) {
-        this.months = months;
-        this.days = days;
-        this.hours = hours;
+    private final long seconds;
+    private final long minutes;
+    private final int hours;
+    private final int days;
+    private final short months;
+    private final long daysOfMonth;
+    private final long daysOfWeek;
+    //days allowed in a month by its shape [day of week of its first day * 4 + its length - 28], only the days it has
+    private final int[] validDays;
+    //true if the days allowed depend on the day of week the month starts at, otherwise only the first 4 shapes are used
+    private final boolean weekly;
+    //months with at least one valid day in a common year [0] and a leap year [1]
+    private final short[] validMonths;
+
+    public Timer(long minutes, int hours, int days, short months) throws Exception {
+        this(1L, minutes, hours, days, months);
+    }
+
+    public Timer(long seconds, long minutes, int hours, int days, short months) throws Exception {
+        this(seconds, minutes, hours, Integer.toUnsignedLong(days) & DAYS, months, WEEK_DAYS);
+    }
+
+    /**
+     * @param days       the days and the L and W items as laid out by {@link #DAYS}
+     * @param daysOfWeek the days of week and the L and # items as laid out by {@link #WEEK_DAYS},
+     *                   with {@link #EITHER_DAY} to allow the days matching either field
+     */
+    public Timer(long seconds, long minutes, int hours, long days, short months, long daysOfWeek) throws Exception {
+        if (seconds == 0 || minutes == 0 || hours == 0 || days == 0 || months == 0 ||
+                (daysOfWeek & ~EITHER_DAY) == 0)
+            throw new Exception("Empty schedule, the expression doesn't match any time");
+        this.seconds = seconds;
         this.minutes = minutes;
+        this.hours = hours;
+        this.days = (int) (days & DAYS);
+        this.months = months;
+        this.daysOfMonth = days;
+        this.daysOfWeek = daysOfWeek;
+        this.weekly = (days & ~DAYS) != 0 || (daysOfWeek & ~EITHER_DAY) != WEEK_DAYS;
+        this.validDays = new int[7 * 4];
+        for (int firstDay = 0; firstDay < (weekly ? 7 : 1); firstDay++)
+            for (int length = 28; length <= 31; length++)
+                validDays[firstDay * 4 + length - 28] = daysOf(firstDay, length);
+        this.validMonths = new short[2];
+        for (int leap = 0; leap < 2; leap++) {
+            for (int month = 1; month <= 12; month++) {
+                if ((months & 1 << month) == 0) continue;
+                int length = CivilCalendar.daysInMonth(month, leap == 1);
+                for (int firstDay = 0; firstDay < 7; firstDay++)
+                    if (validDays[(weekly ? firstDay : 0) * 4 + length - 28] != 0) validMonths[leap] |= 1 << month;
+            }
+        }
+        if (validMonths[0] == 0 && validMonths[1] == 0)
+            throw new Exception("Impossible schedule, the days don't exist in the months");
+    }
+
+    /**
+     * @return the days allowed in a month of the given length starting at the given day of week
+     */
+    private int daysOf(int firstDay, int length) {
+        //bits 1 till the length of the month
+        int monthDays = (int) ((1L << length + 1) - 2);
+        int byDay = days & monthDays;
+        if ((daysOfMonth & LAST_DAY) != 0) byDay |= 1 << length;
+        if ((daysOfMonth & LAST_WEEKDAY) != 0) byDay |= 1 << nearestWeekday(firstDay, length, length);
+        for (int day = 1; day <= length; day++)
+            if ((daysOfMonth & 1L << NEAREST_WEEKDAY_SHIFT + day) != 0) byDay |= 1 << nearestWeekday(firstDay, length, day);
+        int byWeekDay = 0;
+        for (int day = 1; day <= length; day++) {
+            int weekDay = (firstDay + day - 1) % 7;
+            long bits = 1L << weekDay | 1L << NTH_WEEK_DAY_SHIFT + 7 * ((day - 1) / 7) + weekDay;
+            //the last one of a day of week is in the last 7 days of the month
+            if (day + 7 > length) bits |= 1L << LAST_WEEK_DAY_SHIFT + weekDay;
+            if ((daysOfWeek & bits) != 0) byWeekDay |= 1 << day;
+        }
+        return (daysOfWeek & EITHER_DAY) != 0 ? byDay | byWeekDay : byDay & byWeekDay;
+    }
+
+    /**
+     * @return the weekday nearest to the given day without leaving the month, a Saturday moves to the Friday before it
+     * and a Sunday to the Monday after it, unless the month ends or starts before them
+     */
+    private static int nearestWeekday(int firstDay, int length, int day) {
+        int weekDay = (firstDay + day - 1) % 7;
+        if (weekDay == SATURDAY) return day == 1 ? day + 2 : day - 1;
+        if (weekDay == SUNDAY) return day == length ? day - 2 : day + 1;
+        return day;
+    }
+
+    public Timer(SortedSet<Minute> minutes, SortedSet<Hour> hours, SortedSet<Day> days, SortedSet<Month> months) throws Exception {
+        this(toMask(minutes), (int) toMask(hours), (int) toMask(days), (short) toMask(months));
+    }
+
+    private static long toMask(SortedSet<? extends TimeUnit> units) {
+        long mask = 0;
+        for (TimeUnit unit : units) mask |= 1L << unit.getValue();
+        return mask;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public long getMinutes() {
+        return minutes;
+    }
+
+    public int getHours() {
+        return hours;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public short getMonths() {
+        return months;
+    }
+
+    public long getDaysOfWeek() {
+        return daysOfWeek;
     }
 
     /**
      * Calculates the remaining minutes to reach the nearest execution time
      *
+     * @param clock clock the current time is read from
      * @return remaining minutes
-     * @throws Exception if any time unit can't get created from the current time
      */
-    public Integer getNextExecutionTime() throws Exception {
-        LocalDateTime currentTime = LocalDateTime.now();
-        Minute currentMinute = new Minute(currentTime.getMinute());
-        Hour currentHour = new Hour(currentTime.getHour());
-        Day currentDay = new Day(currentTime.getDayOfMonth());
-        Month currentMonth = new Month(currentTime.getMonthValue());
+    public Integer getNextExecutionTime(Clock clock) {
+        long minuteStart = Math.floorDiv(clock.millis(), 60_000) * 60_000;
+        return (int) ((getNextExecutionTime(minuteStart) - minuteStart) / 60_000);
+    }
+
+    /**
+     * Same as {@link #getNextExecutionTime(long, ZonePolicy)} in the default zone of the JVM {@link ZonePolicy#systemDefault()}.
+     */
+    public long getNextExecutionTime(long epochMillis) {
+        return getNextExecutionTime(epochMillis, ZonePolicy.systemDefault());
+    }
+
+    /**
+     * Calculates the absolute time of the nearest execution at or after the given instant
+     * an instant that isn't at the beginning of a second is rounded up to the next second.
+     * <p>
+     * the schedule is matched against the local times of the zone, a matching local time in a gap of the zone
+     * or in an overlap is handled by the gap and the overlap policies.
+     * the offsets are taken from the cached transitions of the zone, so the search doesn't allocate.
+     *
+     * @param epochMillis milliseconds since epoch to search from
+     * @param zonePolicy  zone the schedule is in
+     * @return milliseconds since epoch of the nearest execution time
+     */
+    public long getNextExecutionTime(long epochMillis, ZonePolicy zonePolicy) {
+        long from = Math.floorDiv(epochMillis + 999, 1000) * 1000;
+        ZoneTransitions zone = zonePolicy.transitions(from);
+        long local = from + zone.offsetAt(from);
+        DstOverlapPolicy overlapPolicy = zonePolicy.getOverlapPolicy();
+        if (overlapPolicy != DstOverlapPolicy.FIRE_FIRST && zone.kindOf(local) == ZoneTransitions.OVERLAP &&
+                zone.earlierInstant(local) == from) {
+            //searching from the first occurrence, the second occurrences of the local times already passed are ahead
+            long next = nextLocalTime(local);
+            if (overlapPolicy == DstOverlapPolicy.FIRE_BOTH && next < zone.localEndOf(local)) return zone.earlierInstant(next);
+            local = zone.localStartOf(local);
+        }
+        while (true) {
+            local = nextLocalTime(local);
+            zone = zone.around(local);
+            switch (zone.kindOf(local)) {
+                case ZoneTransitions.GAP:
+                    //the local times in the gap map to the transition, so the next search starts after the gap
+                    if (zonePolicy.getGapPolicy() == DstGapPolicy.FIRE_AFTER_GAP) return zone.earlierInstant(local);
+                    local = zone.localEndOf(local);
+                    continue;
+                case ZoneTransitions.OVERLAP:
+                    //searching from the second occurrence, the first occurrences of the overlap have passed
+                    long earlier = zone.earlierInstant(local);
+                    if (overlapPolicy == DstOverlapPolicy.FIRE_SECOND) return zone.laterInstant(local);
+                    if (earlier >= from) return earlier;
+                    if (overlapPolicy == DstOverlapPolicy.FIRE_BOTH) return zone.laterInstant(local);
+                    local = zone.localEndOf(local);
+                    continue;
+                default:
+                    return zone.earlierInstant(local);
+            }
+        }
+    }
+
+    /**
+     * Calculates the nearest matching local time at or after the given one
+     * if the minute of the time matches the schedule the rest of its seconds are searched first,
+     * otherwise the first second of the nearest matching minute is taken.
+     *
+     * @param localMillis milliseconds since the local epoch, at the beginning of a second
+     * @return milliseconds since the local epoch of the nearest execution
+     */
+    private long nextLocalTime(long localMillis) {
+        long minute = Math.floorDiv(localMillis, 60_000);
+        long nextMinute = nextLocalMinute(minute);
+        if (nextMinute == minute) {
+            int nextSecond = nextBit(seconds, (int) ((localMillis - minute * 60_000) / 1000), 59);
+            if (nextSecond >= 0) return minute * 60_000 + nextSecond * 1000L;
+            //no more seconds in this minute, search from the next one
+            nextMinute = nextLocalMinute(minute + 1);
+        }
+        return nextMinute * 60_000 + firstBit(seconds) * 1000L;
+    }
+
+    /**
+     * Calculates the nearest matching minute at or after the given one on the real calendar.
+     * <p>
+     * the search goes from the month down to the minute like the field search below, whenever a field has no match
+     * the search carries to the next value of the upper field and starts the lower ones over.
+     * the years are carried only by schedules matching a few shapes of February, ie the leap day alone at most 8 years
+     * 2096 -> 2104, or the fifth Monday of February till a leap year starting February at a Monday.
+     *
+     * @param localMinute minutes since the local epoch
+     * @return minutes since the local epoch of the nearest execution
+     */
+    long nextLocalMinute(long localMinute) {
+        long epochDay = Math.floorDiv(localMinute, MINUTES_IN_DAY);
+        int minuteOfDay = (int) (localMinute - epochDay * MINUTES_IN_DAY);
+        long year = CivilCalendar.yearOf(epochDay);
+        int month = CivilCalendar.monthOf(epochDay);
+        int day = CivilCalendar.dayOf(epochDay);
+        int hour = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+        while (true) {
+            int leap = CivilCalendar.isLeap(year) ? 1 : 0;
+            int nextMonth = nextBit(validMonths[leap], month, 12);
+            if (nextMonth < 0) {
+                year++;
+                month = 1;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                continue;
+            }
+            if (nextMonth != month) {
+                month = nextMonth;
+                day = 1;
+                hour = 0;
+                minute = 0;
+            }
+            int nextDay = nextBit(validDaysOf(year, month, leap), day, 31);
+            if (nextDay < 0) {
+                month++;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                continue;
+            }
+            if (nextDay != day) {
+                day = nextDay;
+                hour = 0;
+                minute = 0;
+            }
+            int nextHour = nextBit(hours, hour, 23);
+            if (nextHour < 0) {
+                //the next day may be in the next month, the day search above carries it
+                day++;
+                hour = 0;
+                minute = 0;
+                continue;
+            }
+            if (nextHour != hour) {
+                hour = nextHour;
+                minute = 0;
+            }
+            int nextMinute = nextBit(minutes, minute, 59);
+            if (nextMinute < 0) {
+                hour++;
+                minute = 0;
+                continue;
+            }
+            return CivilCalendar.toEpochDay(year, month, day) * MINUTES_IN_DAY + hour * 60 + nextMinute;
+        }
+    }
 
-        Time time = new Time(currentMonth, currentDay, currentHour, currentMinute);
-        return time.remainingMinutesToReach(getNearestTime(time));
+    private int validDaysOf(long year, int month, int leap) {
+        int length = CivilCalendar.daysInMonth(month, leap == 1);
+        if (!weekly) return validDays[length - 28];
+        //the epoch day 0 is a Thursday
+        int firstDay = (int) Math.floorMod(CivilCalendar.toEpochDay(year, month, 1) + 4, 7L);
+        return validDays[firstDay * 4 + length - 28];
     }
 
     /**
-     * Get the nearest execution time from available collections of available months,days,hours and minutes
-     * @param time the reference time to get the nearest from [current time]
-     * @return nearest avaliable execution time
+     * Calculates the remaining minutes from the given time to reach the nearest execution time
+     * the given time itself is included, so 0 is returned if it matches the schedule.
+     * <p>
+     * the time has no year, so this search considers all months are 31 days,
+     * {@link #getNextExecutionTime(long)} follows the real calendar.
+     * the days of week and the L, W and # days need the year too, so only the plain days are considered here.
+     * <p>
+     * the search goes from the month down to the minute, whenever a field has no match at or after
+     * the current value the search carries to the next value of the upper field,
+     * ie for 30 10 * * at 11:00 the hour 11 has no minute 30 so the next day at 10:30 is taken.
+     *
+     * @return remaining minutes
      */
-    private Time getNearestTime(Time time) {
-        Month month = getNearestUnit(time.month, this.months);
-        if (!Objects.equals(month.getValue(), time.month.getValue()))
-            return new Time(month, this.days.first(), this.hours.first(), this.minutes.first());
-        Day day = getNearestUnit(time.day, this.days);
-        if (!Objects.equals(day.getValue(), time.day.getValue()))
-            return new Time(month, day, this.hours.first(), this.minutes.first());
-        Hour hour = getNearestUnit(time.hour, this.hours);
-        if (!Objects.equals(hour.getValue(), time.hour.getValue()))
-            return new Time(month, day, hour, this.minutes.first());
-        Minute minute = getNearestUnit(time.minute, this.minutes);
-
-        //Corner case if the next minute will be in the next hour
-        if (minute.getValue() < time.minute.getValue()) {
-            hour.increaseVal(1);
-            hour = getNearestUnit(hour, this.hours);
+    public int getNextExecutionTime(int month, int day, int hour, int minute) {
+        int nextMonth = nextBit(months, month, 12);
+        if (nextMonth == month) {
+            int nextDay = nextBit(days, day, 31);
+            if (nextDay == day) {
+                int nextHour = nextBit(hours, hour, 23);
+                if (nextHour == hour) {
+                    int nextMinute = nextBit(minutes, minute, 59);
+                    if (nextMinute >= 0)
+                        return distance(month, day, hour, minute, month, day, hour, nextMinute);
+                    nextHour = nextBit(hours, hour + 1, 23);
+                }
+                if (nextHour >= 0)
+                    return distance(month, day, hour, minute, month, day, nextHour, firstBit(minutes));
+                nextDay = nextBit(days, day + 1, 31);
+            }
+            if (nextDay >= 0)
+                return distance(month, day, hour, minute, month, nextDay, firstBit(hours), firstBit(minutes));
+            nextMonth = nextBit(months, month + 1, 12);
         }
-        return new Time(month, day, hour, minute);
+        if (nextMonth < 0) nextMonth = firstBit(months);
+        return distance(month, day, hour, minute, nextMonth, firstBit(days), firstBit(hours), firstBit(minutes));
+    }
+
+    /**
+     * minutes from the first time to the second one, considering all months are 31 days
+     * if the second time is before the first one, it's taken from the next year
+     */
+    private static int distance(int month, int day, int hour, int minute,
+                                int nextMonth, int nextDay, int nextHour, int nextMinute) {
+        int from = (((month - 1) * 31 + day - 1) * 24 + hour) * 60 + minute;
+        int to = (((nextMonth - 1) * 31 + nextDay - 1) * 24 + nextHour) * 60 + nextMinute;
+        return (to - from + MINUTES_IN_YEAR) % MINUTES_IN_YEAR;
     }
 
     /**
-     * calculates the nearest next available time unit from a sorted set of units
-     * to the given unit
-     * ie for months sorted set [2,5,8,9]
-     * if month is 4 then 5 should be returned
-     * if month is 10 then 2 should be returned
+     * @return the smallest set bit at or after from and not after max, -1 if there isn't
      */
-    public <T extends TimeUnit> T getNearestUnit(T unit, SortedSet<T> units) {
-        //tail set is a sorted set contains all elements greater than the given unit
-        SortedSet<T> tailSet = units.tailSet(unit);
-        if (tailSet.size() == 0) return units.first();
-        return tailSet.first();
+    private static int nextBit(long mask, int from, int max) {
+        if (from > max) return -1;
+        int bit = Long.numberOfTrailingZeros(mask & (-1L << from));
+        return bit > max ? -1 : bit;
+    }
+
+    private static int firstBit(long mask) {
+        return Long.numberOfTrailingZeros(mask);
     }
 }
@@ -0,0 +1,63 @@
+package cron.scheduler.time;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Virtual clock is a clock moved forward by hand instead of by the passing of time,
+ * so a simulation can run months of schedule in seconds. The clocks of the same time in other zones share the time.
+ */
+public class VirtualClock extends Clock {
+    private final Now now;
+    private final ZoneId zone;
+
+    public VirtualClock(Instant start, ZoneId zone) {
+        this(new Now(start.toEpochMilli()), zone);
+    }
+
+    private VirtualClock(Now now, ZoneId zone) {
+        this.now = now;
+        this.zone = zone;
+    }
+
+    /**
+     * move the clock forward to the given time, a time before the current one is ignored so the clock never goes back
+     */
+    public void advanceTo(long epochMillis) {
+        now.millis = Math.max(now.millis, epochMillis);
+    }
+
+    public void advance(Duration duration) {
+        advanceTo(now.millis + duration.toMillis());
+    }
+
+    @Override
+    public long millis() {
+        return now.millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(now.millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new VirtualClock(now, zone);
+    }
+
+    private static class Now {
+        volatile long millis;
+
+        Now(long millis) {
+            this.millis = millis;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package cron.scheduler.time;
+
+/**
+ * Day of week where 0 and 7 are both Sunday as in cron expressions.
+ */
+public class WeekDay extends TimeUnit {
+    public static final int MIN = 0;
+    public static final int MAX = 7;
+    private static final WeekDay[] VALUES = new WeekDay[MAX + 1];
+
+    static {
+        for (int i = MIN; i <= MAX; i++) VALUES[i] = new WeekDay(i);
+    }
+
+    private WeekDay(int value) {
+        super(value);
+    }
+
+    public static WeekDay of(int value) throws Exception {
+        checkBoundaries(value, MIN, MAX);
+        return VALUES[value];
+    }
+
+    public WeekDay plus(int amount) {
+        return VALUES[shift(amount)];
+    }
+
+    public WeekDay minus(int amount) {
+        return VALUES[shift(-amount)];
+    }
+
+    @Override
+    public int getMin() {
+        return MIN;
+    }
+
+    @Override
+    public int getMax() {
+        return MAX;
+    }
+}
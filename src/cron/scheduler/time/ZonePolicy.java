@@ -0,0 +1,73 @@
+package cron.scheduler.time;
+
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * Zone policy is the time zone the cron expression of a job is read in,
+ * with what to do with the local times skipped and repeated by the transitions of the zone [daylight saving time].
+ */
+public class ZonePolicy {
+    private final ZoneId zone;
+    private final DstGapPolicy gapPolicy;
+    private final DstOverlapPolicy overlapPolicy;
+
+    public ZonePolicy(ZoneId zone) {
+        this(zone, DstGapPolicy.FIRE_AFTER_GAP, DstOverlapPolicy.FIRE_FIRST);
+    }
+
+    public ZonePolicy(ZoneId zone, DstGapPolicy gapPolicy, DstOverlapPolicy overlapPolicy) {
+        this.zone = Objects.requireNonNull(zone);
+        this.gapPolicy = Objects.requireNonNull(gapPolicy);
+        this.overlapPolicy = Objects.requireNonNull(overlapPolicy);
+    }
+
+    /**
+     * @return the policy of the default zone of the JVM, shared by all the jobs and resolved once on its first use
+     * [a later change of the default zone doesn't apply to it]
+     */
+    public static ZonePolicy systemDefault() {
+        return SystemDefault.POLICY;
+    }
+
+    private static class SystemDefault {
+        static final ZonePolicy POLICY = new ZonePolicy(ZoneId.systemDefault());
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public DstGapPolicy getGapPolicy() {
+        return gapPolicy;
+    }
+
+    public DstOverlapPolicy getOverlapPolicy() {
+        return overlapPolicy;
+    }
+
+    /**
+     * @return the cached transitions of the zone around the given instant
+     */
+    ZoneTransitions transitions(long epochMillis) {
+        return ZoneTransitions.of(zone, epochMillis);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ZonePolicy)) return false;
+        ZonePolicy policy = (ZonePolicy) o;
+        return zone.equals(policy.zone) && gapPolicy == policy.gapPolicy && overlapPolicy == policy.overlapPolicy;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(zone, gapPolicy, overlapPolicy);
+    }
+
+    @Override
+    public String toString() {
+        return zone + " " + gapPolicy + " " + overlapPolicy;
+    }
+}
@@ -0,0 +1,166 @@
+package cron.scheduler.time;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zone transitions is a table of the offset changes of a zone in a range of time,
+ * so the offsets are found by a scan of a few primitive arrays instead of a lookup in the zone rules.
+ * <p>
+ * A table covers a year and the next one, the tables are cached by zone and year and never replaced,
+ * so thousands of jobs in the same zone share them and searches in different years don't rebuild each other's table.
+ * <p>
+ * Each transition makes a range of local times either a gap [the clocks moved forward, the times don't exist]
+ * or an overlap [the clocks moved back, the times happen twice], the other local times have a single offset.
+ */
+final class ZoneTransitions {
+    static final int NORMAL = 0;
+    static final int GAP = 1;
+    static final int OVERLAP = 2;
+    private static final long DAY = 86_400_000L;
+    private static final ConcurrentHashMap<ZoneId, ConcurrentHashMap<Long, ZoneTransitions>> cache =
+            new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+    //the instants of the table are in [start, end)
+    private final long start;
+    private final long end;
+    private final long startOffset;
+    private final long[] transitions;
+    private final long[] offsetsBefore;
+    private final long[] offsetsAfter;
+
+    /**
+     * build the table of the given year and the next year
+     */
+    private ZoneTransitions(ZoneId zone, long year) {
+        this.zone = zone;
+        ZoneRules rules = zone.getRules();
+        this.start = CivilCalendar.toEpochDay(year, 1, 1) * DAY - DAY;
+        this.end = CivilCalendar.toEpochDay(year + 2, 1, 1) * DAY + DAY;
+        this.startOffset = offsetMillis(rules.getOffset(Instant.ofEpochMilli(start)));
+        List<ZoneOffsetTransition> found = new ArrayList<>();
+        if (!rules.isFixedOffset()) {
+            ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(start));
+            while (transition != null && transition.toEpochSecond() * 1000 < end) {
+                found.add(transition);
+                transition = rules.nextTransition(transition.getInstant());
+            }
+        }
+        this.transitions = new long[found.size()];
+        this.offsetsBefore = new long[found.size()];
+        this.offsetsAfter = new long[found.size()];
+        for (int i = 0; i < found.size(); i++) {
+            transitions[i] = found.get(i).toEpochSecond() * 1000;
+            offsetsBefore[i] = offsetMillis(found.get(i).getOffsetBefore());
+            offsetsAfter[i] = offsetMillis(found.get(i).getOffsetAfter());
+        }
+    }
+
+    /**
+     * @return the cached table of the zone from the year of the given instant or local time, built on its first use
+     */
+    static ZoneTransitions of(ZoneId zone, long epochMillis) {
+        long year = CivilCalendar.yearOf(Math.floorDiv(epochMillis, DAY));
+        return cache.computeIfAbsent(zone, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(year, key -> new ZoneTransitions(zone, key));
+    }
+
+    /**
+     * @return this table if it covers the given instant or local time, otherwise the table of its year
+     */
+    ZoneTransitions around(long epochMillis) {
+        return covers(epochMillis) ? this : of(zone, epochMillis);
+    }
+
+    /**
+     * a day of margin is kept at both ends, so a local time and its instant are covered together
+     */
+    boolean covers(long epochMillis) {
+        return epochMillis >= start + DAY && epochMillis < end - DAY;
+    }
+
+    /**
+     * @return offset in milliseconds at the given instant
+     */
+    long offsetAt(long epochMillis) {
+        long offset = startOffset;
+        for (int i = 0; i < transitions.length && transitions[i] <= epochMillis; i++) offset = offsetsAfter[i];
+        return offset;
+    }
+
+    /**
+     * @return {@link #NORMAL}, {@link #GAP} or {@link #OVERLAP} for the given local time
+     */
+    int kindOf(long localMillis) {
+        int i = transitionOf(localMillis);
+        if (i < 0) return NORMAL;
+        return offsetsAfter[i] > offsetsBefore[i] ? GAP : OVERLAP;
+    }
+
+    /**
+     * @return the earliest instant of the given local time, the transition itself for a local time in a gap
+     */
+    long earlierInstant(long localMillis) {
+        int i = transitionOf(localMillis);
+        if (i < 0) return localMillis - offsetOfLocal(localMillis);
+        return offsetsAfter[i] > offsetsBefore[i] ? transitions[i] : localMillis - offsetsBefore[i];
+    }
+
+    /**
+     * @return the latest instant of the given local time, the transition itself for a local time in a gap
+     */
+    long laterInstant(long localMillis) {
+        int i = transitionOf(localMillis);
+        if (i < 0) return localMillis - offsetOfLocal(localMillis);
+        return offsetsAfter[i] > offsetsBefore[i] ? transitions[i] : localMillis - offsetsAfter[i];
+    }
+
+    /**
+     * @return the first local time of the gap or the overlap the given local time is in
+     */
+    long localStartOf(long localMillis) {
+        int i = transitionOf(localMillis);
+        return i < 0 ? localMillis : transitions[i] + Math.min(offsetsBefore[i], offsetsAfter[i]);
+    }
+
+    /**
+     * @return the first local time after the gap or the overlap the given local time is in
+     */
+    long localEndOf(long localMillis) {
+        int i = transitionOf(localMillis);
+        return i < 0 ? localMillis : transitions[i] + Math.max(offsetsBefore[i], offsetsAfter[i]);
+    }
+
+    /**
+     * @return index of the transition whose gap or overlap has the given local time, -1 if there isn't
+     */
+    private int transitionOf(long localMillis) {
+        for (int i = 0; i < transitions.length; i++) {
+            long low = transitions[i] + Math.min(offsetsBefore[i], offsetsAfter[i]);
+            if (localMillis < low) return -1;
+            if (localMillis < transitions[i] + Math.max(offsetsBefore[i], offsetsAfter[i])) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return offset of a local time outside the gaps and the overlaps
+     */
+    private long offsetOfLocal(long localMillis) {
+        long offset = startOffset;
+        for (int i = 0; i < transitions.length && transitions[i] + offsetsAfter[i] <= localMillis; i++)
+            offset = offsetsAfter[i];
+        return offset;
+    }
+
+    private static long offsetMillis(ZoneOffset offset) {
+        return offset.getTotalSeconds() * 1000L;
+    }
+}
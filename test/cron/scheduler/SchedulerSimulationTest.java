@@ -0,0 +1,129 @@
+package cron.scheduler;
+
+import cron.scheduler.job.MisfirePolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class SchedulerSimulationTest {
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static SchedulerConfig config() {
+        return new SchedulerConfig().setClock(Clock.system(ZoneOffset.UTC)).setShards(2);
+    }
+
+    @Test
+    public void testYear() {
+        SchedulerSimulation simulation = new SchedulerSimulation(config(), START);
+        Scheduler scheduler = simulation.getScheduler();
+        AtomicInteger executions = new AtomicInteger();
+        Assert.assertTrue(scheduler.addJob("Monthly", "0 0 1 *", executions::incrementAndGet));
+        Assert.assertTrue(scheduler.addJob("LastDay", "0 12 31 *", () -> {}));
+        Assert.assertTrue(scheduler.addJob("LeapDay", "0 0 29 2", () -> {}));
+        Assert.assertTrue(scheduler.addJob("Daily", "30 6 * *", () -> {}));
+        scheduler.startAll();
+
+        simulation.runUntil(START.plus(Duration.ofDays(365)));
+        FireLog log = simulation.getFireLog();
+        //the start is excluded as the jobs are started at it, the end is included
+        Assert.assertEquals(12, log.numOfFires("Monthly"));
+        Assert.assertEquals(12, executions.get());
+        Assert.assertEquals(7, log.numOfFires("LastDay"));
+        Assert.assertEquals(0, log.numOfFires("LeapDay"));
+        Assert.assertEquals(365, log.numOfFires("Daily"));
+        Assert.assertEquals(12 + 7 + 365, log.getTotalFires());
+        Assert.assertEquals(Instant.parse("2026-01-01T00:00:00Z"), simulation.getClock().instant());
+
+        //the leap day comes in the next year
+        simulation.runFor(Duration.ofDays(4 * 365));
+        Assert.assertEquals(1, log.numOfFires("LeapDay"));
+    }
+
+    @Test
+    public void testConfigNotChanged() {
+        SchedulerConfig config = config();
+        Clock clock = config.getClock();
+        SchedulerSimulation simulation = new SchedulerSimulation(config, START);
+        //the config keeps its clock while the scheduler runs on the virtual one
+        Assert.assertSame(clock, config.getClock());
+        Scheduler scheduler = simulation.getScheduler();
+        Assert.assertTrue(scheduler.addJob("Hourly", "0 * * *", () -> {}));
+        Assert.assertTrue(scheduler.startJob("Hourly"));
+        Assert.assertEquals(new UpcomingFire(START, "Hourly"),
+                scheduler.upcomingFires(Duration.ofHours(1).plusMillis(1)).findFirst().orElse(null));
+    }
+
+    @Test
+    public void testFiresMatchProjection() {
+        SchedulerSimulation simulation = new SchedulerSimulation(config(), START);
+        Scheduler scheduler = simulation.getScheduler();
+        Assert.assertTrue(scheduler.addJob("A", "*/20 * * * * *", () -> {}));
+        Assert.assertTrue(scheduler.addJob("B", "0 */2 * *", () -> {}));
+        Assert.assertTrue(scheduler.addJob("C", "15 10 * *", () -> {}));
+        scheduler.startAll();
+        Instant from = START.plusSeconds(1);
+        Instant to = START.plus(Duration.ofDays(2));
+        List<UpcomingFire> projected = scheduler.upcomingFires(from, to.plusMillis(1)).collect(Collectors.toList());
+
+        simulation.runUntil(to);
+        FireLog log = simulation.getFireLog();
+        //the jobs fired at the same tick are ordered by the projection only
+        List<UpcomingFire> fired = log.getFires().stream()
+                .sorted(Comparator.comparing(UpcomingFire::getTime).thenComparing(UpcomingFire::getJobID))
+                .collect(Collectors.toList());
+        Assert.assertEquals(projected, fired);
+        Assert.assertEquals(2 * 86_400 / 20 + 24 + 2, log.getTotalFires());
+        //A and B fire together every two hours, with C at 10:15
+        Assert.assertEquals(2, log.getPeakFiresPerTick());
+        Assert.assertEquals(Instant.parse("2025-01-01T02:00:00Z"), log.getPeakTime());
+        Assert.assertEquals(log.getTicks(), log.getFiresPerTick().getCount());
+    }
+
+    @Test
+    public void testJobChangesDuringSimulation() {
+        SchedulerSimulation simulation = new SchedulerSimulation(config(), START, jobID -> false);
+        Scheduler scheduler = simulation.getScheduler();
+        //the job stops itself at its third execution
+        AtomicInteger executions = new AtomicInteger();
+        Assert.assertTrue(scheduler.addJob("Job", "0 * * *", () -> {
+            if (executions.incrementAndGet() == 3) scheduler.stopJob("Job");
+        }));
+        Assert.assertTrue(scheduler.changeMisfirePolicy("Job", MisfirePolicy.SKIP));
+        scheduler.startAll();
+        simulation.runFor(Duration.ofDays(1));
+        Assert.assertEquals(3, executions.get());
+        Assert.assertTrue(simulation.getFireLog().getFires().isEmpty());
+
+        //a job started later is scheduled from the virtual time
+        Assert.assertTrue(scheduler.startJob("Job"));
+        simulation.runFor(Duration.ofHours(2));
+        Assert.assertEquals(5, executions.get());
+        Assert.assertEquals(0, scheduler.numOfMisfires());
+    }
+
+    /**
+     * a year of 10k jobs firing daily [3.65M fires] runs in a few seconds
+     */
+    @Test(timeout = 60_000)
+    public void testCapacity() {
+        SchedulerSimulation simulation = new SchedulerSimulation(config(), START, jobID -> false);
+        Scheduler scheduler = simulation.getScheduler();
+        for (int i = 0; i < 10_000; i++)
+            Assert.assertTrue(scheduler.addJob("Job" + i, (i % 60) + " " + (i % 24) + " * *", () -> {}));
+        scheduler.startAll();
+        simulation.runUntil(START.plus(Duration.ofDays(365)));
+        FireLog log = simulation.getFireLog();
+        Assert.assertEquals(10_000L * 365, log.getTotalFires());
+        //the jobs spread over 120 times of the day, so at most 84 jobs fire at once
+        Assert.assertTrue(log.getTicks() >= 365L * 120);
+        Assert.assertEquals(84, log.getPeakFiresPerTick());
+    }
+}
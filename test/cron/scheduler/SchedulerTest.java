@@ -1,9 +1,54 @@
 package cron.scheduler;
 
+import cron.scheduler.cluster.ClusterNode;
+import cron.scheduler.cluster.InMemoryCoordinator;
+import cron.scheduler.events.JobDispatchEvent;
+import cron.scheduler.events.JobExecutionEvent;
+import cron.scheduler.events.ParseEvent;
+import cron.scheduler.events.TickEvent;
+import cron.scheduler.execution.RejectionPolicy;
+import cron.scheduler.job.JobState;
+import cron.scheduler.job.MisfirePolicy;
+import cron.scheduler.job.OverlapPolicy;
+import cron.scheduler.job.TriggerPolicy;
+import cron.scheduler.metrics.SchedulerMXBean;
+import cron.scheduler.persistence.JobTypeFactory;
+import cron.scheduler.persistence.MappedJournal;
+import cron.scheduler.store.JobStoreType;
+import cron.scheduler.time.ZonePolicy;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
 
 public class SchedulerTest {
+    private static final Instant START = Instant.parse("2025-03-10T12:00:00Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
 
     @Test
     public void testSchedulerAPI(){
@@ -52,4 +97,458 @@ public class SchedulerTest {
         Assert.assertEquals(0,scheduler.numOfTotalJobs());
         Assert.assertEquals(0,scheduler.numOfScheduledJobs());
     }
+
+    @Test
+    public void testShardedScheduler() {
+        try (Scheduler scheduler = new Scheduler(new SchedulerConfig().setShards(4))) {
+            for (int i = 0; i < 100; i++) Assert.assertTrue(scheduler.addJob("Job" + i, "* * * *", () -> {}));
+            scheduler.startAll();
+            Assert.assertEquals(100, scheduler.numOfScheduledJobs());
+            Assert.assertFalse(scheduler.startJob("Job7"));
+
+            //moving a started job to the shard of its new ID keeps it started
+            for (int i = 0; i < 10; i++) Assert.assertTrue(scheduler.changeID("Job" + i, "Moved" + i));
+            Assert.assertEquals(100, scheduler.numOfScheduledJobs());
+            for (int i = 0; i < 10; i++) Assert.assertFalse(scheduler.startJob("Moved" + i));
+
+            Assert.assertTrue(scheduler.changeJobSchedule("Moved3", "0 * * *"));
+            Assert.assertEquals(100, scheduler.numOfScheduledJobs());
+            for (int i = 0; i < 50; i++) Assert.assertTrue(scheduler.stopJob("Job" + (i + 10)));
+            Assert.assertEquals(50, scheduler.numOfScheduledJobs());
+            scheduler.stopAll();
+            Assert.assertEquals(0, scheduler.numOfScheduledJobs());
+            Assert.assertEquals(100, scheduler.numOfTotalJobs());
+        }
+    }
+
+    @Test
+    public void testConcurrentLifecycle() throws Exception {
+        try (Scheduler scheduler = new Scheduler(new SchedulerConfig().setShards(2))) {
+            ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                threads.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < 500; i++) {
+                            String id = "Job" + thread + "-" + i;
+                            scheduler.addJob(id, "* * * *", () -> {});
+                            scheduler.startJob(id);
+                            if (i % 2 == 0) scheduler.stopJob(id);
+                            if (i % 10 == 0) scheduler.startAll();
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }));
+            }
+            for (Thread thread : threads) thread.start();
+            for (Thread thread : threads) thread.join();
+            Assert.assertTrue(errors.toString(), errors.isEmpty());
+            Assert.assertEquals(4000, scheduler.numOfTotalJobs());
+
+            scheduler.startAll();
+            Assert.assertEquals(4000, scheduler.numOfScheduledJobs());
+            Assert.assertEquals(JobState.SCHEDULED, scheduler.getJobState("Job0-0"));
+            scheduler.stopJob("Job0-0");
+            Assert.assertEquals(JobState.STOPPED, scheduler.getJobState("Job0-0"));
+            scheduler.removeAll();
+            Assert.assertNull(scheduler.getJobState("Job0-0"));
+            Assert.assertEquals(0, scheduler.numOfScheduledJobs());
+            Assert.assertEquals(0, scheduler.numOfTotalJobs());
+        }
+    }
+
+    @Test
+    public void testBatchAPI() {
+        try (Scheduler scheduler = new Scheduler(new SchedulerConfig().setShards(3)
+                .setJobStoreType(JobStoreType.PRIORITY_QUEUE))) {
+            List<JobSpec> specs = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) specs.add(new JobSpec("Job" + i, i + "/5 * * *", () -> {}));
+            specs.add(new JobSpec("Job1", "* * * *", () -> {}));
+            specs.add(new JobSpec("Bad", "60 * * *", () -> {}));
+            BatchResult added = scheduler.addJobs(specs);
+            Assert.assertEquals(1002, added.getItems().size());
+            //only 60 valid minutes
+            Assert.assertEquals(60, added.numOfSucceeded());
+            Assert.assertTrue(added.getItems().get(0).isSucceeded());
+            Assert.assertEquals("Duplicate ID in the batch", added.getItems().get(1000).getError());
+            Assert.assertFalse(added.getItems().get(1001).isSucceeded());
+            Assert.assertEquals(60, scheduler.numOfTotalJobs());
+
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 30; i++) ids.add("Job" + i);
+            ids.add("Job0");
+            ids.add("Missing");
+            BatchResult started = scheduler.startJobs(ids);
+            Assert.assertEquals(30, started.numOfSucceeded());
+            Assert.assertEquals(2, started.numOfFailed());
+            Assert.assertEquals(30, scheduler.numOfScheduledJobs());
+            scheduler.startAll();
+            Assert.assertEquals(60, scheduler.numOfScheduledJobs());
+        }
+    }
+
+    @Test
+    public void testWakeups() throws Exception {
+        //the clock stands still, so the shards are woken up by the changes only
+        Scheduler scheduler = new Scheduler(new SchedulerConfig().setShards(2)
+                .setClock(Clock.fixed(Instant.parse("2025-03-10T12:00:00Z"), ZoneOffset.UTC)));
+        //nothing to wait for, so the idle threads stay parked
+        awaitParked(scheduler, 0);
+        Assert.assertEquals(0, scheduler.numOfWakeups());
+        Assert.assertTrue(scheduler.addJob("Job", "0 0 1 1", () -> {}));
+        Assert.assertTrue(scheduler.startJob("Job"));
+        //the shard of the job is unparked to wait for its deadline
+        awaitParked(scheduler, 1);
+        Assert.assertTrue(scheduler.changeJobSchedule("Job", "0 0 1 1"));
+        scheduler.stopJob("Job");
+        //neither a change that isn't earlier than the deadline nor a stop needs a wakeup,
+        //so the next wakeup is the one of a job earlier than the deadlines of both shards
+        Assert.assertTrue(scheduler.addJob("Earlier", "0 0 1 6", () -> {}));
+        Assert.assertTrue(scheduler.startJob("Earlier"));
+        awaitParked(scheduler, 2);
+        Assert.assertEquals(2, scheduler.numOfWakeups());
+        scheduler.close();
+    }
+
+    /**
+     * wait till the shards woke up the given times and parked again, so the next change isn't merged with a wakeup
+     */
+    private static void awaitParked(Scheduler scheduler, long wakeups) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((scheduler.numOfWakeups() < wakeups || !Arrays.stream(scheduler.shards()).allMatch(SchedulerShard::isParked))
+                && System.nanoTime() < deadline) Thread.sleep(5);
+    }
+
+    @Test
+    public void testSecondsSchedule() {
+        SchedulerSimulation simulation = new SchedulerSimulation(new SchedulerConfig(), START);
+        Scheduler scheduler = simulation.getScheduler();
+        AtomicInteger executions = new AtomicInteger();
+        Assert.assertTrue(scheduler.addJob("Job", "* * * * * *", executions::incrementAndGet));
+        Assert.assertTrue(scheduler.startJob("Job"));
+        simulation.runFor(Duration.ofMillis(2500));
+        Assert.assertEquals(2, executions.get());
+        Assert.assertEquals(Arrays.asList(new UpcomingFire(START.plusSeconds(1), "Job"),
+                new UpcomingFire(START.plusSeconds(2), "Job")), simulation.getFireLog().getFires());
+    }
+
+    @Test
+    public void testPersistence() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        JobTypeFactory count = data -> {
+            int amount = Integer.parseInt(data);
+            return () -> executions.addAndGet(amount);
+        };
+        MappedJournal journal = new MappedJournal(folder.getRoot().toPath());
+        Scheduler scheduler = new Scheduler(new SchedulerConfig().setPersistence(journal)
+                .registerJobType("count", count));
+        Assert.assertTrue(scheduler.addJob("Typed", "0 * * *", "count", "5"));
+        Assert.assertTrue(scheduler.addJob("Stopped", "0 * * *", "count", "1"));
+        Assert.assertFalse(scheduler.addJob("Unknown", "0 * * *", "missing", "1"));
+        Assert.assertFalse(scheduler.addJob("Invalid", "0 * * *", "count", "x"));
+        Assert.assertTrue(scheduler.addJob("Plain", "0 * * *", () -> {}));
+        scheduler.startAll();
+        Assert.assertTrue(scheduler.changeJobSchedule("Typed", "0/10 * * *"));
+        Assert.assertTrue(scheduler.changeID("Typed", "Renamed"));
+        Assert.assertTrue(scheduler.changeMisfirePolicy("Renamed", MisfirePolicy.SKIP));
+        Assert.assertTrue(scheduler.stopJob("Stopped"));
+        //the dependencies aren't persisted, so a persisted job can't depend on other jobs
+        Assert.assertFalse(scheduler.addDependency("Renamed", "Plain"));
+        Assert.assertTrue(scheduler.addDependency("Plain", "Renamed"));
+        //closing the scheduler forces and closes the journal
+        scheduler.close();
+
+        //only the jobs added with a type are recovered, with their last state
+        Scheduler recovered = new Scheduler(new SchedulerConfig()
+                .setPersistence(new MappedJournal(folder.getRoot().toPath()))
+                .registerJobType("count", count));
+        Assert.assertEquals(2, recovered.numOfTotalJobs());
+        Assert.assertEquals(1, recovered.numOfScheduledJobs());
+        Assert.assertEquals(JobState.SCHEDULED, recovered.getJobState("Renamed"));
+        Assert.assertEquals(JobState.ADDED, recovered.getJobState("Stopped"));
+        Assert.assertNull(recovered.getJobState("Plain"));
+        recovered.close();
+    }
+
+    @Test
+    public void testCluster() throws Exception {
+        InMemoryCoordinator coordinator = new InMemoryCoordinator();
+        ConcurrentLinkedQueue<Long> dueTimes = new ConcurrentLinkedQueue<>();
+        List<Scheduler> nodes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Scheduler node = new Scheduler(new SchedulerConfig()
+                    .setClusterNode(new ClusterNode(coordinator, "node" + i, 16, 300)));
+            Assert.assertTrue(node.addJob("Job", "* * * * * *", () -> dueTimes.add(node.getJob("Job").getDueTime())));
+            Assert.assertTrue(node.startJob("Job"));
+            nodes.add(node);
+        }
+        Thread.sleep(2500);
+        for (Scheduler node : nodes) node.close();
+        //each second is fired by one node only
+        Assert.assertFalse(dueTimes.isEmpty());
+        Assert.assertEquals(dueTimes.toString(), dueTimes.size(), new HashSet<>(dueTimes).size());
+        //the closed nodes left the cluster
+        Assert.assertEquals(Collections.singleton("observer"), coordinator.heartbeat("observer", 300));
+    }
+
+    @Test
+    public void testClusterOnOffsetClock() throws Exception {
+        //the due times and the time the partitions are taken come from the same clock of the scheduler
+        AtomicInteger executions = new AtomicInteger();
+        try (Scheduler node = new Scheduler(new SchedulerConfig()
+                .setClock(Clock.offset(Clock.systemUTC(), Duration.ofDays(-1)))
+                .setClusterNode(new ClusterNode(new InMemoryCoordinator(), "node", 16, 300)))) {
+            Assert.assertTrue(node.addJob("Job", "* * * * * *", executions::incrementAndGet));
+            Assert.assertTrue(node.startJob("Job"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (executions.get() == 0 && System.nanoTime() < deadline) Thread.sleep(10);
+        }
+        Assert.assertTrue(executions.get() > 0);
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        SchedulerSimulation simulation = new SchedulerSimulation(
+                new SchedulerConfig().setMBeanName("cron.scheduler:type=Scheduler,name=test"), START);
+        Scheduler scheduler = simulation.getScheduler();
+        Assert.assertTrue(scheduler.addJob("Job", "* * * * * *", () -> {}));
+        Assert.assertTrue(scheduler.startJob("Job"));
+        simulation.runFor(Duration.ofSeconds(2));
+        SchedulerMXBean metrics = scheduler.getMetrics();
+        Assert.assertEquals(2, metrics.getExecutions());
+        Assert.assertEquals(0, metrics.getFailures());
+        Assert.assertEquals(1, metrics.getJobsPerTickMax());
+        Assert.assertTrue(metrics.getJobExecutionTimePercentile("Job", 0.99) >= 0);
+        Assert.assertEquals(-1, metrics.getJobExecutionTimePercentile("Missing", 0.99));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("cron.scheduler:type=Scheduler,name=test");
+        Assert.assertEquals(1, server.getAttribute(name, "TotalJobs"));
+        Assert.assertEquals(metrics.getFailures(), server.getAttribute(name, "Failures"));
+        scheduler.close();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testCountsOfRemovedJobs() {
+        SchedulerSimulation simulation = new SchedulerSimulation(
+                new SchedulerConfig().setMBeanName("cron.scheduler:type=Scheduler,name=counts"), START);
+        Scheduler scheduler = simulation.getScheduler();
+        //the job runs itself while it's running, so the inner execution is skipped
+        Assert.assertTrue(scheduler.addJob("Job", "* * * * * *", () -> scheduler.getJob("Job").run(),
+                OverlapPolicy.SKIP_IF_RUNNING));
+        Assert.assertTrue(scheduler.startJob("Job"));
+        simulation.runFor(Duration.ofSeconds(2));
+        Assert.assertEquals(2, scheduler.numOfSkippedExecutions());
+        //the counts of the scheduler keep the executions of the removed jobs
+        Assert.assertTrue(scheduler.removeJob("Job"));
+        Assert.assertEquals(2, scheduler.numOfSkippedExecutions());
+        Assert.assertEquals(0, scheduler.numOfQueuedExecutions());
+        scheduler.close();
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("scheduler.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TickEvent.class);
+            recording.enable(JobDispatchEvent.class);
+            recording.enable(JobExecutionEvent.class);
+            recording.enable(ParseEvent.class);
+            recording.start();
+            SchedulerSimulation simulation = new SchedulerSimulation(
+                    new SchedulerConfig().setMBeanName("cron.scheduler:type=Scheduler,name=events"), START);
+            Scheduler scheduler = simulation.getScheduler();
+            Assert.assertTrue(scheduler.addJob("Recorded", "* * * * * *", () -> {
+                throw new IllegalStateException("failure");
+            }));
+            Assert.assertTrue(scheduler.startJob("Recorded"));
+            simulation.runFor(Duration.ofSeconds(2));
+            scheduler.close();
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        List<RecordedEvent> parses = ofType(events, "cron.scheduler.Parse");
+        Assert.assertTrue(parses.stream().anyMatch(event -> event.getString("expression").equals("* * * * * *")));
+
+        //the schedulers of the other tests are closed, so every dispatch is of this job
+        List<RecordedEvent> ticks = ofType(events, "cron.scheduler.Tick").stream()
+                .filter(event -> event.getInt("dispatchedJobs") > 0).collect(Collectors.toList());
+        Assert.assertEquals(2, ticks.size());
+        Assert.assertTrue(ticks.stream().allMatch(event -> event.getInt("dispatchedJobs") == 1));
+
+        List<RecordedEvent> dispatches = ofType(events, "cron.scheduler.JobDispatch");
+        Assert.assertEquals(2, dispatches.size());
+        Assert.assertTrue(dispatches.stream().allMatch(event -> event.getString("jobID").equals("Recorded")));
+        Assert.assertEquals(START.plusSeconds(1).toEpochMilli(), dispatches.get(0).getLong("scheduledTime"));
+
+        List<RecordedEvent> executions = ofType(events, "cron.scheduler.JobExecution");
+        Assert.assertEquals(2, executions.size());
+        Assert.assertTrue(executions.stream().allMatch(event -> event.getString("jobID").equals("Recorded")));
+        Assert.assertTrue(executions.get(0).getBoolean("failed"));
+        //the virtual clock stands still while the job runs
+        Assert.assertEquals(0, executions.get(0).getLong("lateness"));
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testUpcomingFires() throws Exception {
+        Instant now = Instant.parse("2025-03-10T12:00:00Z");
+        try (Scheduler scheduler = new Scheduler(new SchedulerConfig()
+                .setMBeanName("cron.scheduler:type=Scheduler,name=upcoming")
+                .setClock(Clock.fixed(now, ZoneOffset.UTC)))) {
+            Assert.assertTrue(scheduler.addJob("B", "*/30 * * * * *", () -> {}));
+            Assert.assertTrue(scheduler.addJob("A", "*/20 * * * * *", () -> {}));
+            Assert.assertTrue(scheduler.addJob("Stopped", "* * * * * *", () -> {}));
+            Assert.assertTrue(scheduler.startJob("A"));
+            Assert.assertTrue(scheduler.startJob("B"));
+
+            Instant from = now.plus(Duration.ofHours(1));
+            List<UpcomingFire> fires = scheduler.upcomingFires(from, from.plusSeconds(60)).collect(Collectors.toList());
+            Assert.assertEquals(Arrays.asList(
+                    new UpcomingFire(from, "A"),
+                    new UpcomingFire(from, "B"),
+                    new UpcomingFire(from.plusSeconds(20), "A"),
+                    new UpcomingFire(from.plusSeconds(30), "B"),
+                    new UpcomingFire(from.plusSeconds(40), "A")
+            ), fires);
+
+            //a large window is consumed lazily, the second page starts after the last fire of the first one
+            Instant to = from.plus(Duration.ofDays(365));
+            List<UpcomingFire> page = scheduler.upcomingFires(from, to).limit(3).collect(Collectors.toList());
+            Instant last = page.get(page.size() - 1).getTime();
+            List<UpcomingFire> next = scheduler.upcomingFires(last.plusMillis(1), to).limit(2)
+                    .collect(Collectors.toList());
+            Assert.assertEquals(Arrays.asList(
+                    new UpcomingFire(from.plusSeconds(30), "B"),
+                    new UpcomingFire(from.plusSeconds(40), "A")
+            ), next);
+            Assert.assertEquals(0, scheduler.upcomingFires(from, from).count());
+        }
+    }
+
+    @Test
+    public void testZone() throws Exception {
+        try (Scheduler scheduler = new Scheduler(new SchedulerConfig()
+                .setMBeanName("cron.scheduler:type=Scheduler,name=zone")
+                .setClock(Clock.fixed(Instant.parse("2025-03-10T12:00:00Z"), ZoneOffset.UTC)))) {
+            Assert.assertTrue(scheduler.addJob("Midnight", "0 0 * *", () -> {}));
+            Assert.assertTrue(scheduler.startJob("Midnight"));
+            ZoneId kolkata = ZoneId.of("Asia/Kolkata");
+            Assert.assertTrue(scheduler.changeZone("Midnight", new ZonePolicy(kolkata)));
+            Assert.assertFalse(scheduler.changeZone("Missing", new ZonePolicy(kolkata)));
+
+            UpcomingFire fire = scheduler.upcomingFires(Duration.ofDays(1)).findFirst().orElseThrow();
+            //the midnight after the noon of UTC is 18:30 of UTC
+            Assert.assertEquals(Instant.parse("2025-03-10T18:30:00Z"), fire.getTime());
+        }
+    }
+
+    /**
+     * extract at 2:00 then transform and load after it, driven by a simulation so the fires are in virtual time
+     */
+    @Test
+    public void testDependencies() {
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        SchedulerConfig config = new SchedulerConfig().setClock(Clock.system(ZoneOffset.UTC))
+                .setMBeanName("cron.scheduler:type=Scheduler,name=dependencies");
+        SchedulerSimulation simulation = new SchedulerSimulation(config, start);
+        Scheduler scheduler = simulation.getScheduler();
+        AtomicInteger extracts = new AtomicInteger();
+        List<String> order = new ArrayList<>();
+        Assert.assertTrue(scheduler.addJob("Extract", "0 2 * *", () -> {
+            order.add("Extract");
+            //the extract of the second day fails
+            if (extracts.incrementAndGet() == 2) throw new IllegalStateException("failure");
+        }));
+        //the stages have no schedule, they're fired by the jobs they depend on only
+        Assert.assertTrue(scheduler.addJob("Transform", () -> order.add("Transform")));
+        Assert.assertTrue(scheduler.addJob("Load", () -> order.add("Load")));
+        Assert.assertTrue(scheduler.addDependency("Transform", "Extract"));
+        Assert.assertTrue(scheduler.addDependency("Load", "Transform"));
+        //cycles and missing jobs are rejected
+        Assert.assertFalse(scheduler.addDependency("Extract", "Load"));
+        Assert.assertFalse(scheduler.addDependency("Extract", "Extract"));
+        Assert.assertFalse(scheduler.addDependency("Load", "Missing"));
+        Assert.assertEquals(Arrays.asList("Transform"), scheduler.getUpstreamJobs("Load"));
+        scheduler.startAll();
+        Assert.assertEquals(1, scheduler.numOfScheduledJobs());
+        //only the extract fires on a schedule
+        Assert.assertEquals(Collections.singletonList("Extract"), scheduler.upcomingFires(Duration.ofDays(1))
+                .map(UpcomingFire::getJobID).collect(Collectors.toList()));
+
+        simulation.runFor(Duration.ofDays(3));
+        FireLog log = simulation.getFireLog();
+        Assert.assertEquals(3, log.numOfFires("Extract"));
+        Assert.assertEquals(2, log.numOfFires("Transform"));
+        Assert.assertEquals(2, log.numOfFires("Load"));
+        Assert.assertEquals(Arrays.asList("Extract", "Transform", "Load", "Extract", "Extract", "Transform", "Load"), order);
+        //the stages are fired at the time the extract finishes, not at a later tick
+        Assert.assertEquals(Instant.parse("2025-01-03T02:00:00Z"), log.getFires().get(log.getFires().size() - 1).getTime());
+    }
+
+    /**
+     * the downstream jobs are fired while the single worker is busy and the queue is full,
+     * the worker that finished an upstream job must not wait for the queue
+     */
+    @Test
+    public void testDependenciesOnSaturatedPool() throws Exception {
+        Scheduler scheduler = new Scheduler(new SchedulerConfig().setPoolSize(1).setQueueCapacity(1)
+                .setRejectionPolicy(RejectionPolicy.BLOCK).setMBeanName("cron.scheduler:type=Scheduler,name=saturated"));
+        AtomicInteger downstreams = new AtomicInteger();
+        //the upstream jobs last long enough for the next ones to fill the queue meanwhile
+        Runnable upstream = () -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(scheduler.addJob("Upstream" + i, "* * * * * *", upstream));
+            Assert.assertTrue(scheduler.addJob("Downstream" + i, downstreams::incrementAndGet));
+            Assert.assertTrue(scheduler.addDependency("Downstream" + i, "Upstream" + i));
+        }
+        scheduler.startAll();
+        //each second fires the three pairs, so two seconds fire six downstream jobs
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (downstreams.get() < 6 && System.nanoTime() < deadline) Thread.sleep(10);
+        scheduler.close();
+        Assert.assertTrue(downstreams.get() >= 6);
+    }
+
+    @Test
+    public void testTriggerPolicies() {
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        SchedulerConfig config = new SchedulerConfig().setClock(Clock.system(ZoneOffset.UTC))
+                .setMBeanName("cron.scheduler:type=Scheduler,name=triggers");
+        SchedulerSimulation simulation = new SchedulerSimulation(config, start);
+        Scheduler scheduler = simulation.getScheduler();
+        Assert.assertTrue(scheduler.addJob("Upstream", "0 4 * *", () -> {}));
+        //the report is due at 3:00 but waits for the upstream finishing at 4:00
+        Assert.assertTrue(scheduler.addJob("Report", "0 3 * *", () -> {}));
+        Assert.assertTrue(scheduler.addDependency("Report", "Upstream"));
+        Assert.assertTrue(scheduler.changeTriggerPolicy("Report", TriggerPolicy.UPSTREAM_AND_SCHEDULE));
+        //the audit fires at 5:00 and after the upstream
+        Assert.assertTrue(scheduler.addJob("Audit", "0 5 * *", () -> {}));
+        Assert.assertTrue(scheduler.addDependency("Audit", "Upstream"));
+        Assert.assertTrue(scheduler.changeTriggerPolicy("Audit", TriggerPolicy.UPSTREAM_OR_SCHEDULE));
+        scheduler.startAll();
+
+        simulation.runUntil(Instant.parse("2025-01-01T06:00:00Z"));
+        FireLog log = simulation.getFireLog();
+        Assert.assertEquals(Arrays.asList(
+                new UpcomingFire(Instant.parse("2025-01-01T04:00:00Z"), "Upstream"),
+                new UpcomingFire(Instant.parse("2025-01-01T04:00:00Z"), "Report"),
+                new UpcomingFire(Instant.parse("2025-01-01T04:00:00Z"), "Audit"),
+                new UpcomingFire(Instant.parse("2025-01-01T05:00:00Z"), "Audit")
+        ), log.getFires());
+
+        //without its upstream the report is fired by its schedule only
+        Assert.assertTrue(scheduler.removeJob("Upstream"));
+        Assert.assertEquals(0, scheduler.getUpstreamJobs("Report").size());
+        simulation.runUntil(Instant.parse("2025-01-02T03:00:00Z"));
+        Assert.assertEquals(2, log.numOfFires("Report"));
+    }
 }
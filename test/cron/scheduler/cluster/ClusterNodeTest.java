@@ -0,0 +1,112 @@
+package cron.scheduler.cluster;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ClusterNodeTest {
+    private static final int PARTITIONS = 64;
+    private static final long TTL = 300;
+
+    /**
+     * sample the owners of the jobs till all the partitions are owned by the given nodes,
+     * a job never has more than one owner at any sample
+     */
+    private static void awaitBalanced(List<ClusterNode> nodes) throws Exception {
+        long deadline = System.currentTimeMillis() + 10 * TTL;
+        while (true) {
+            int owned = 0;
+            for (ClusterNode node : nodes) owned += node.numOfOwnedPartitions();
+            for (int i = 0; i < 1000; i++) {
+                int owners = 0;
+                for (ClusterNode node : nodes) if (node.owns("Job" + i, Long.MAX_VALUE)) owners++;
+                Assert.assertTrue(owners <= 1);
+            }
+            if (owned == PARTITIONS && allOwnSome(nodes)) return;
+            Assert.assertTrue("partitions are not balanced in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean allOwnSome(List<ClusterNode> nodes) {
+        for (ClusterNode node : nodes) if (node.numOfOwnedPartitions() == 0) return false;
+        return true;
+    }
+
+    private static List<ClusterNode> startNodes(ClusterCoordinator coordinator, String... IDs) {
+        List<ClusterNode> nodes = new ArrayList<>();
+        for (String ID : IDs) {
+            ClusterNode node = new ClusterNode(coordinator, ID, PARTITIONS, TTL);
+            node.start();
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    @Test
+    public void testPartitioning() throws Exception {
+        List<ClusterNode> nodes = startNodes(new InMemoryCoordinator(), "A", "B", "C");
+        awaitBalanced(nodes);
+        ClusterNode left = nodes.remove(0);
+        left.leave();
+        Assert.assertEquals(0, left.numOfOwnedPartitions());
+        awaitBalanced(nodes);
+        for (ClusterNode node : nodes) node.leave();
+    }
+
+    @Test
+    public void testFailover() throws Exception {
+        List<ClusterNode> nodes = startNodes(new InMemoryCoordinator(), "A", "B", "C");
+        awaitBalanced(nodes);
+        //the dead node keeps its leases till they expire
+        ClusterNode dead = nodes.remove(2);
+        dead.halt();
+        awaitBalanced(nodes);
+        Assert.assertEquals(0, dead.numOfOwnedPartitions());
+        for (ClusterNode node : nodes) node.leave();
+    }
+
+    @Test
+    public void testOwnedSince() throws Exception {
+        ClusterNode node = startNodes(new InMemoryCoordinator(), "A").get(0);
+        Assert.assertEquals(PARTITIONS, node.numOfOwnedPartitions());
+        //executions before the partition is taken belong to the previous owner
+        Assert.assertFalse(node.owns("Job", System.currentTimeMillis() - 60_000));
+        Assert.assertTrue(node.owns("Job", System.currentTimeMillis() + 1000));
+        node.leave();
+    }
+
+    @Test
+    public void testOwnedSinceOnClock() throws Exception {
+        //the scheduler's clock is an hour behind the wall clock, the partitions are taken at its time
+        Clock clock = Clock.offset(Clock.systemUTC(), Duration.ofHours(-1));
+        ClusterNode node = new ClusterNode(new InMemoryCoordinator(), "A", PARTITIONS, TTL);
+        node.setClock(clock);
+        node.start();
+        Assert.assertFalse(node.owns("Job", clock.millis() - 60_000));
+        Assert.assertTrue(node.owns("Job", clock.millis() + 1000));
+        node.leave();
+    }
+
+    @Test
+    public void testRing() {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("A", "B", "C"));
+        ConsistentHashRing grown = new ConsistentHashRing(Arrays.asList("A", "B", "C", "D"));
+        int moved = 0;
+        for (int i = 0; i < 1000; i++) {
+            String before = ring.nodeOf("Job" + i);
+            String after = grown.nodeOf("Job" + i);
+            //a joining node only takes keys, the others don't move between the old nodes
+            if (!before.equals(after)) {
+                Assert.assertEquals("D", after);
+                moved++;
+            }
+        }
+        Assert.assertTrue(moved > 100 && moved < 400);
+    }
+}
@@ -1,4 +1,187 @@
 package cron.scheduler.job;
 
+import cron.scheduler.metrics.SchedulerMetrics;
+import cron.scheduler.time.Timer;
+import cron.scheduler.time.ZonePolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class JobTest {
+
+    @Test
+    public void testTimerCache() throws Exception {
+        TimerCache cache = new TimerCache(2);
+        Timer timer = CronExpressionParser.parse("0/5 * * *");
+        Assert.assertNull(cache.get("0/5 * * *"));
+        Assert.assertSame(timer, cache.put("0/5 * * *", timer));
+        Assert.assertSame(timer, cache.put("0/5 * * *", CronExpressionParser.parse("0 * * *")));
+        cache.put("0 * * *", CronExpressionParser.parse("0 * * *"));
+        //the least recently used expression is evicted
+        Assert.assertSame(timer, cache.get("0/5 * * *"));
+        cache.put("1 * * *", CronExpressionParser.parse("1 * * *"));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertNull(cache.get("0 * * *"));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+        cache.setCapacity(1);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertNull(cache.get("0/5 * * *"));
+        Assert.assertNotNull(cache.get("1 * * *"));
+    }
+
+    @Test
+    public void testSecondsField() throws Exception {
+        Timer timer = CronExpressionParser.parse("10,40 0/5 * * * *");
+        Assert.assertEquals((1L << 10) | (1L << 40), timer.getSeconds());
+        //without the seconds field the jobs fire at second 0
+        Assert.assertEquals(1L, CronExpressionParser.parse("0/5 * * *").getSeconds());
+        Assert.assertEquals(timer.getMinutes(), CronExpressionParser.parse("0/5 * * *").getMinutes());
+
+        long minute = System.currentTimeMillis() / 300_000 * 300_000;
+        Job job = new Job("1", "10,40 0/5 * * * *", () -> {});
+        job.scheduleAfter(minute);
+        Assert.assertEquals(minute + 10_000, job.getNextExecutionTime());
+        job.scheduleAfter(minute + 10_000);
+        Assert.assertEquals(minute + 40_000, job.getNextExecutionTime());
+        job.scheduleAfter(minute + 40_500);
+        Assert.assertEquals(minute + 310_000, job.getNextExecutionTime());
+    }
+
+    @Test
+    public void testDayOfWeekField() throws Exception {
+        //the fifth field of an expression without seconds is the day of week
+        Assert.assertEquals(0x3EL, CronExpressionParser.parse("0 9 * * 1-5").getDaysOfWeek());
+        Assert.assertEquals(0x3EL, CronExpressionParser.parse("0 0 9 * * 1-5").getDaysOfWeek());
+        Assert.assertEquals(Timer.WEEK_DAYS, CronExpressionParser.parse("0 9 * *").getDaysOfWeek());
+        long february = LocalDate.of(2024, 2, 1).toEpochDay() * 86_400_000L;
+        Assert.assertEquals(february + 28 * 86_400_000L, CronExpressionParser.parse("0 0 L 2 *")
+                .getNextExecutionTime(february, new ZonePolicy(ZoneOffset.UTC)));
+        //neither field starts with *, so a day matching either of them fires
+        Assert.assertEquals(february + 86_400_000L, CronExpressionParser.parse("0 0 13 * 1-7")
+                .getNextExecutionTime(february + 1, new ZonePolicy(ZoneOffset.UTC)));
+        Assert.assertEquals(february + 86_400_000L, CronExpressionParser.parse("0 0 13 * 5")
+                .getNextExecutionTime(february + 1, new ZonePolicy(ZoneOffset.UTC)));
+        //a * field leaves the other one alone
+        Assert.assertEquals(february + 12 * 86_400_000L, CronExpressionParser.parse("0 0 13 * *")
+                .getNextExecutionTime(february + 1, new ZonePolicy(ZoneOffset.UTC)));
+        Assert.assertEquals(february + 86_400_000L, CronExpressionParser.parse("0 0 * * 5")
+                .getNextExecutionTime(february + 1, new ZonePolicy(ZoneOffset.UTC)));
+        try {
+            CronExpressionParser.parse("0 0 0 * * * *");
+            Assert.fail("Didn't throw exception");
+        } catch (Exception ignored) {
+        }
+    }
+
+    @Test
+    public void testSharedTimer() throws Exception {
+        Assert.assertSame(CronExpressionParser.parse("0 * * *"), CronExpressionParser.parse("  0   *  * * "));
+        Assert.assertNotSame(CronExpressionParser.parse("0 * * *"), CronExpressionParser.parse("1 * * *"));
+    }
+
+    /**
+     * fire the job 3 times while its first execution is blocked
+     *
+     * @return number of executions
+     */
+    private int fireWhileRunning(OverlapPolicy policy, int expectedSkipped, int expectedQueued) throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Job job = new Job("1", "* * * *", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }, policy);
+        SchedulerMetrics metrics = new SchedulerMetrics();
+        job.setMetrics(metrics);
+        Thread first = new Thread(job);
+        first.start();
+        started.await();
+        Thread[] others = new Thread[3];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = new Thread(job);
+            others[i].start();
+        }
+        //parallel executions are blocked as well, so release them after they start
+        if (policy == OverlapPolicy.ALLOW_PARALLEL) while (executions.get() < 4) Thread.yield();
+        else for (Thread other : others) other.join();
+        release.countDown();
+        first.join();
+        for (Thread other : others) other.join();
+        Assert.assertEquals(expectedSkipped, job.getSkippedExecutions());
+        Assert.assertEquals(expectedQueued, job.getQueuedExecutions());
+        Assert.assertEquals(expectedSkipped, metrics.getSkippedExecutions());
+        Assert.assertEquals(expectedQueued, metrics.getQueuedExecutions());
+        return executions.get();
+    }
+
+    @Test
+    public void testOverlapPolicy() throws Exception {
+        Assert.assertEquals(1, fireWhileRunning(OverlapPolicy.SKIP_IF_RUNNING, 3, 0));
+        Assert.assertEquals(2, fireWhileRunning(OverlapPolicy.QUEUE_ONE, 2, 1));
+        Assert.assertEquals(4, fireWhileRunning(OverlapPolicy.ALLOW_PARALLEL, 0, 0));
+    }
+
+    /**
+     * fire a job every second found due 10.5 seconds after its due time
+     *
+     * @return number of times the function ran, -1 if the execution is dropped
+     */
+    private int fireLate(MisfirePolicy policy) throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        Job job = new Job("1", "* * * * * *", executions::incrementAndGet);
+        job.setMisfirePolicy(policy);
+        SchedulerMetrics metrics = new SchedulerMetrics();
+        job.setMetrics(metrics);
+        long second = System.currentTimeMillis() / 1000 * 1000;
+        job.scheduleAfter(second);
+        job.reschedule(second + 10_500);
+        Assert.assertEquals(second + 1000, job.getDueTime());
+        Assert.assertEquals(second + 11_000, job.getNextExecutionTime());
+        boolean fired = job.misfire(second + 10_500);
+        Assert.assertEquals(1, metrics.getMisfires());
+        if (!fired) return -1;
+        Assert.assertEquals(1, job.getMisfires());
+        job.run();
+        return executions.get();
+    }
+
+    @Test
+    public void testMisfirePolicy() throws Exception {
+        Assert.assertEquals(1, fireLate(MisfirePolicy.FIRE_ONCE_NOW));
+        //the missed executions at seconds 2 to 10 are run with the late one
+        Assert.assertEquals(10, fireLate(MisfirePolicy.FIRE_ALL_MISSED));
+        Assert.assertEquals(-1, fireLate(MisfirePolicy.SKIP));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        SchedulerMetrics metrics = new SchedulerMetrics();
+        AtomicInteger executions = new AtomicInteger();
+        Job job = new Job("1", "* * * * * *", () -> {
+            if (executions.incrementAndGet() % 2 == 0) throw new IllegalStateException("failure");
+        });
+        job.setMetrics(metrics);
+        Assert.assertNull(job.getExecutionTime());
+        long second = System.currentTimeMillis() / 1000 * 1000;
+        job.scheduleAfter(second - 2000);
+        job.reschedule(second - 1000);
+        for (int i = 0; i < 4; i++) job.run();
+        Assert.assertEquals(4, job.getExecutionTime().getCount());
+        Assert.assertEquals(2, job.getFailures());
+        Assert.assertEquals(4, metrics.getExecutionTime().getCount());
+        Assert.assertEquals(2, metrics.getFailures());
+        //the job is run at least a second after it was due
+        Assert.assertTrue(metrics.getFireLateness().getMax() >= 1000);
+    }
 }
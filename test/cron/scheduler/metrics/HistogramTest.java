@@ -0,0 +1,42 @@
+package cron.scheduler.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        Histogram histogram = new Histogram();
+        Assert.assertEquals(0, histogram.getPercentile(0.99));
+        for (int i = 1; i <= 100; i++) histogram.record(i);
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(5050, histogram.getSum());
+        Assert.assertEquals(100, histogram.getMax());
+        Assert.assertEquals(50.5, histogram.getMean(), 0.001);
+        //50 is in the bucket [32, 63], 99 in the bucket [64, 127] bounded by the max
+        Assert.assertEquals(63, histogram.getPercentile(0.5));
+        Assert.assertEquals(100, histogram.getPercentile(0.99));
+        Assert.assertEquals(1, histogram.getPercentile(0.01));
+        histogram.record(-5);
+        Assert.assertEquals(1, histogram.getBuckets()[0]);
+    }
+
+    @Test
+    public void testConcurrentRecords() throws Exception {
+        Histogram histogram = new Histogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) histogram.record(i & 1023);
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        Assert.assertEquals(800_000, histogram.getCount());
+        Assert.assertEquals(1023, histogram.getMax());
+    }
+}
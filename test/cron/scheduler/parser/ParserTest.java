@@ -1,6 +1,7 @@
 package cron.scheduler.parser;
 
 import cron.scheduler.time.TimeUnit;
+import cron.scheduler.time.Timer;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -113,6 +114,40 @@ public class ParserTest {
         complexTest(daysParser, "2-31/15", new ArrayList<>(Arrays.asList(2, 17)));
     }
 
+    @Test
+    public void daysOfWeekExpressionTest() throws Exception {
+        FieldParser daysOfWeekParser = new DaysOfWeekParser();
+        testAboveMax(daysOfWeekParser, "8");
+        testSingleVale(daysOfWeekParser, "3");
+        testRange(daysOfWeekParser, 1, 5);
+        testList(daysOfWeekParser, new ArrayList<>(Arrays.asList(6, 0, 2)));
+        //7 is Sunday as 0
+        Assert.assertEquals(Timer.WEEK_DAYS, daysOfWeekParser.parse("*"));
+        Assert.assertEquals(Timer.WEEK_DAYS, daysOfWeekParser.parse("1-7"));
+        Assert.assertEquals(1L | 1L << 6, daysOfWeekParser.parse("6/1"));
+    }
+
+    @Test
+    public void extensionsTest() throws Exception {
+        FieldParser daysParser = new DaysParser();
+        Assert.assertEquals(Timer.LAST_DAY, daysParser.parse("L"));
+        Assert.assertEquals(Timer.LAST_WEEKDAY, daysParser.parse("LW"));
+        Assert.assertEquals(1L << Timer.NEAREST_WEEKDAY_SHIFT + 15 | 1L << 1 | Timer.LAST_DAY, daysParser.parse("15W,1,L"));
+        FieldParser daysOfWeekParser = new DaysOfWeekParser();
+        Assert.assertEquals(1L << Timer.LAST_WEEK_DAY_SHIFT + 5, daysOfWeekParser.parse("5L"));
+        Assert.assertEquals(1L << Timer.LAST_WEEK_DAY_SHIFT, daysOfWeekParser.parse("7L"));
+        Assert.assertEquals(1L << Timer.NTH_WEEK_DAY_SHIFT + 7 + 1 | 1L << 3, daysOfWeekParser.parse("1#2,3"));
+        //the extensions of a field aren't accepted by the others
+        FieldParser hoursParser = new HoursParser();
+        testError(hoursParser, "L", 1);
+        testError(daysParser, "5L", 2);
+        testError(daysParser, "1-5W", 4);
+        testError(daysOfWeekParser, "1W", 2);
+        testError(daysOfWeekParser, "L", 1);
+        testError(daysOfWeekParser, "1#6", 3);
+        testError(daysOfWeekParser, "1#", 3);
+    }
+
     @Test
     public void monthExpressionTest() throws Exception {
         FieldParser monthParser = new MonthsParser();
@@ -124,4 +159,38 @@ public class ParserTest {
         testList(monthParser, new ArrayList<>(Arrays.asList(5, 10, 3, 2, 8)));
         complexTest(monthParser, "1-10/3", new ArrayList<>(Arrays.asList(1, 4, 7, 10)));
     }
+
+    private void testError(FieldParser<TimeUnit> parser, String expression, int position) {
+        try {
+            parser.parse(expression);
+            Assert.fail("Didn't throw exception");
+        } catch (Exception e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().endsWith("at position " + position));
+        }
+    }
+
+    @Test
+    public void bitmaskTest() throws Exception {
+        FieldParser minutesParser = new MinutesParser();
+        Assert.assertEquals(1L | 1L << 15 | 1L << 30 | 1L << 45, minutesParser.parse("*/15"));
+        Assert.assertEquals(1L << 5 | 1L << 6 | 1L << 7 | 1L << 20, minutesParser.parse("5-7,20"));
+        Assert.assertEquals(-1L >>> 4, minutesParser.parse("*"));
+        FieldParser monthParser = new MonthsParser();
+        Assert.assertEquals(1L << 2 | 1L << 7 | 1L << 12, monthParser.parse("2/5"));
+    }
+
+    @Test
+    public void errorPositionTest() {
+        FieldParser minutesParser = new MinutesParser();
+        testError(minutesParser, "", 1);
+        testError(minutesParser, "1-7x", 4);
+        testError(minutesParser, "10,60", 4);
+        testError(minutesParser, "5-3", 3);
+        testError(minutesParser, "0/0", 3);
+        testError(minutesParser, "1,,2", 3);
+        testError(minutesParser, "123", 1);
+        testError(minutesParser, "1-", 3);
+        FieldParser daysParser = new DaysParser();
+        testError(daysParser, "0", 1);
+    }
 }
@@ -0,0 +1,122 @@
+package cron.scheduler.persistence;
+
+import cron.scheduler.job.MisfirePolicy;
+import cron.scheduler.job.OverlapPolicy;
+import cron.scheduler.time.DstGapPolicy;
+import cron.scheduler.time.DstOverlapPolicy;
+import cron.scheduler.time.ZonePolicy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MappedJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final ZonePolicy ZONE =
+            new ZonePolicy(ZoneId.of("America/New_York"), DstGapPolicy.SKIP, DstOverlapPolicy.FIRE_BOTH);
+
+    private static JobRecord record(String ID) {
+        return new JobRecord(ID, "0 * * *", "type", "data of " + ID,
+                OverlapPolicy.SKIP_IF_RUNNING, MisfirePolicy.FIRE_ALL_MISSED, ZONE, false);
+    }
+
+    private static Map<String, JobRecord> byID(JobPersistence persistence) {
+        Map<String, JobRecord> records = new HashMap<>();
+        for (JobRecord record : persistence.getRecords()) records.put(record.getID(), record);
+        return records;
+    }
+
+    private static void change(JobPersistence journal) {
+        journal.save(record("A"));
+        journal.save(record("B"));
+        journal.save(record("C"));
+        journal.start("A");
+        journal.start("B");
+        journal.reschedule("B", "0/5 * * *");
+        journal.rename("B", "D");
+        journal.remove("C");
+    }
+
+    private static void assertChanged(JobPersistence journal) {
+        Map<String, JobRecord> records = byID(journal);
+        Assert.assertEquals(2, records.size());
+        Assert.assertTrue(records.get("A").isStarted());
+        Assert.assertEquals("data of A", records.get("A").getJobData());
+        Assert.assertEquals(OverlapPolicy.SKIP_IF_RUNNING, records.get("A").getOverlapPolicy());
+        Assert.assertEquals(MisfirePolicy.FIRE_ALL_MISSED, records.get("A").getMisfirePolicy());
+        Assert.assertEquals(ZONE, records.get("A").getZonePolicy());
+        Assert.assertEquals("D", records.get("D").getID());
+        Assert.assertEquals("0/5 * * *", records.get("D").getCronExpression());
+        Assert.assertTrue(records.get("D").isStarted());
+    }
+
+    @Test
+    public void testRecovery() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        MappedJournal crashed = new MappedJournal(directory);
+        change(crashed);
+        assertChanged(crashed);
+
+        //the journal written to memory is recovered without being closed
+        MappedJournal replayed = new MappedJournal(directory);
+        assertChanged(replayed);
+        replayed.stop("A");
+        replayed.close();
+
+        //closing writes everything to the snapshot
+        MappedJournal snapshot = new MappedJournal(directory);
+        Assert.assertFalse(byID(snapshot).get("A").isStarted());
+        Assert.assertTrue(byID(snapshot).get("D").isStarted());
+        snapshot.close();
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        //a journal of 1KB is compacted many times
+        MappedJournal journal = new MappedJournal(directory, 1024, 10, 60_000);
+        for (int i = 0; i < 200; i++) {
+            journal.save(record("Job" + i));
+            if (i % 2 == 0) journal.remove("Job" + i);
+        }
+        change(journal);
+        journal.close();
+        MappedJournal recovered = new MappedJournal(directory, 1024, 10, 60_000);
+        Map<String, JobRecord> records = byID(recovered);
+        Assert.assertEquals(102, records.size());
+        Assert.assertFalse(records.containsKey("Job0"));
+        Assert.assertTrue(records.containsKey("Job199"));
+        recovered.close();
+    }
+
+    @Test
+    public void testTornEntry() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        MappedJournal journal = new MappedJournal(directory);
+        journal.save(record("A"));
+        journal.save(record("B"));
+        journal.close();
+        MappedJournal crashed = new MappedJournal(directory);
+        crashed.start("A");
+        crashed.start("B");
+
+        //corrupt the last byte of the second entry [the ID of B]
+        try (FileChannel channel = FileChannel.open(directory.resolve("jobs.journal"), StandardOpenOption.WRITE)) {
+            int entry = 12 + 1 + 4 + 1;
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 2 * entry - 1);
+        }
+        Map<String, JobRecord> records = byID(new MappedJournal(directory));
+        Assert.assertTrue(records.get("A").isStarted());
+        Assert.assertFalse(records.get("B").isStarted());
+    }
+}
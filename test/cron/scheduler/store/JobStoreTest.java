@@ -0,0 +1,116 @@
+package cron.scheduler.store;
+
+import cron.scheduler.job.Job;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class JobStoreTest {
+
+    private void testAddRemove(JobStore store) throws Exception {
+        Job job1 = new Job("1", "* * * *", () -> {});
+        Job job2 = new Job("2", "0 0 1 1", () -> {});
+        Assert.assertTrue(store.add(job1));
+        Assert.assertFalse(store.add(job1));
+        Assert.assertTrue(store.add(job2));
+        Assert.assertEquals(2, store.size());
+        Assert.assertTrue(store.contains(job2));
+        Assert.assertTrue(store.remove(job2));
+        Assert.assertFalse(store.remove(job2));
+        Assert.assertFalse(store.contains(job2));
+        Assert.assertEquals(1, store.size());
+        store.clear();
+        Assert.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testPriorityQueueStore() throws Exception {
+        testAddRemove(new PriorityQueueJobStore());
+    }
+
+    @Test
+    public void testTimingWheelStore() throws Exception {
+        testAddRemove(new TimingWheelJobStore(0));
+    }
+
+    private void testDueJobs(JobStore store, long minute) throws Exception {
+        Job everyMinute = new Job("1", "* * * *", () -> {});
+        Job everyHour = new Job("2", "0 * * *", () -> {});
+        everyMinute.scheduleAfter(minute * 60_000);
+        everyHour.scheduleAfter(minute * 60_000);
+        store.add(everyMinute);
+        store.add(everyHour);
+        int hourly = 0;
+        for (int i = 1; i <= 120; i++) {
+            List<Job> due = store.pollDueJobs((minute + i) * 60_000);
+            Assert.assertTrue(due.contains(everyMinute));
+            if (due.contains(everyHour)) hourly++;
+            Assert.assertTrue(everyMinute.getNextExecutionTime() > (minute + i) * 60_000);
+        }
+        Assert.assertEquals(2, hourly);
+        Assert.assertEquals(2, store.size());
+        Assert.assertTrue(store.remove(everyMinute));
+        Assert.assertTrue(store.remove(everyHour));
+        Assert.assertTrue(store.pollDueJobs((minute + 121) * 60_000).isEmpty());
+    }
+
+    @Test
+    public void testDueJobs() throws Exception {
+        long minute = System.currentTimeMillis() / 60_000;
+        testDueJobs(new PriorityQueueJobStore(), minute);
+        testDueJobs(new TimingWheelJobStore(minute * 60), minute);
+    }
+
+    private void testNextExecutionTime(JobStore store, long minute) throws Exception {
+        Assert.assertEquals(Long.MAX_VALUE, store.nextExecutionTime());
+        Job everyHour = new Job("1", "0 * * *", () -> {});
+        everyHour.scheduleAfter(minute * 60_000);
+        store.add(everyHour);
+        //may be earlier than the execution time but never later
+        Assert.assertTrue(store.nextExecutionTime() > minute * 60_000);
+        Assert.assertTrue(store.nextExecutionTime() <= everyHour.getNextExecutionTime());
+        Job everyMinute = new Job("2", "* * * *", () -> {});
+        everyMinute.scheduleAfter(minute * 60_000);
+        store.add(everyMinute);
+        Assert.assertEquals((minute + 1) * 60_000, store.nextExecutionTime());
+        store.remove(everyMinute);
+        //polling at each returned time reaches the execution of the hourly job exactly
+        long expected = everyHour.getNextExecutionTime();
+        long next = store.nextExecutionTime();
+        while (store.pollDueJobs(next).isEmpty()) {
+            Assert.assertTrue(store.nextExecutionTime() > next);
+            next = store.nextExecutionTime();
+        }
+        Assert.assertEquals(expected, next);
+    }
+
+    @Test
+    public void testNextExecutionTime() throws Exception {
+        long minute = System.currentTimeMillis() / 60_000;
+        testNextExecutionTime(new PriorityQueueJobStore(), minute);
+        testNextExecutionTime(new TimingWheelJobStore(minute * 60), minute);
+    }
+
+    private void testSecondsDueJobs(JobStore store, long second) throws Exception {
+        Job everyQuarter = new Job("1", "0/15 * * * * *", () -> {});
+        everyQuarter.scheduleAfter(second * 1000);
+        store.add(everyQuarter);
+        int fired = 0;
+        for (int i = 1; i <= 120; i++) {
+            List<Job> due = store.pollDueJobs((second + i) * 1000);
+            if (due.contains(everyQuarter)) {
+                fired++;
+                Assert.assertEquals(0, (second + i) % 15);
+            }
+        }
+        Assert.assertEquals(8, fired);
+    }
+
+    @Test
+    public void testSecondsDueJobs() throws Exception {
+        long second = System.currentTimeMillis() / 1000;
+        testSecondsDueJobs(new PriorityQueueJobStore(), second);
+        testSecondsDueJobs(new TimingWheelJobStore(second), second);
+    }
+}
@@ -3,74 +3,110 @@ package cron.scheduler.time;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Random;
+
 public class TimeTest {
+    private static final ZonePolicy UTC = new ZonePolicy(ZoneOffset.UTC);
 
     private int generateRand(int min, int max) {
         int range = (max - min) + 1;
         return (int) (Math.random() * range) + min;
     }
 
-    void increaseTimeUnit(TimeUnit unit) {
-        Integer value = generateRand(1, unit.getMax() - unit.getValue());
-        Integer before = unit.getValue();
-        unit.increaseVal(value);
-        int expected = before + value;
-        int found = unit.getValue();
+    void increaseTimeUnit(TimeUnit unit, TimeUnit increased, int value) {
+        int expected = unit.getValue() + value;
+        int found = increased.getValue();
         if (expected != found)
             Assert.fail("Invalid increasing\nExpected " + expected + "\nFound " + found);
     }
 
-    void increaseAboveMax(TimeUnit unit) {
-        Integer value = generateRand(unit.getMax() - unit.getValue() + 1, unit.getMax());
-        Integer before = unit.getValue();
-        unit.increaseVal(value);
-        int expected = Math.max(unit.getMin(), (before + value) % (unit.getMax() + 1));
-        int found = unit.getValue();
+    void increaseAboveMax(TimeUnit unit, TimeUnit increased, int value) {
+        int expected = unit.getValue() + value - (unit.getMax() - unit.getMin() + 1);
+        int found = increased.getValue();
         if (expected != found)
             Assert.fail("Invalid increasing\nExpected " + expected + "\nFound " + found);
     }
 
-    void decreaseTimeUnit(TimeUnit unit) {
-        Integer value = generateRand(1, unit.getValue());
-        Integer before = unit.getValue();
-        unit.decreaseVal(value);
-        int expected = before - value;
-        int found = unit.getValue();
+    void decreaseTimeUnit(TimeUnit unit, TimeUnit decreased, int value) {
+        int expected = unit.getValue() - value;
+        int found = decreased.getValue();
         if (expected != found)
-            Assert.fail("Invalid increasing\nExpected " + expected + "\nFound " + found);
+            Assert.fail("Invalid decreasing\nExpected " + expected + "\nFound " + found);
     }
 
-    void decreaseBelowMin(TimeUnit unit) {
-        Integer value = generateRand(unit.getValue() + 1, unit.getMax());
-        Integer before = unit.getValue();
-        unit.decreaseVal(value);
-        int expected = (before - value + unit.getMax() + 1) % (unit.getMax() + 1);
-        int found = unit.getValue();
+    void decreaseBelowMin(TimeUnit unit, TimeUnit decreased, int value) {
+        int expected = unit.getValue() - value + (unit.getMax() - unit.getMin() + 1);
+        int found = decreased.getValue();
         if (expected != found)
-            Assert.fail("Invalid increasing\nExpected " + expected + "\nFound " + found);
+            Assert.fail("Invalid decreasing\nExpected " + expected + "\nFound " + found);
     }
 
     @Test
     public void testIncreasingValue() throws Exception {
-        increaseTimeUnit(new Month(generateRand(1, 12)));
-        increaseAboveMax(new Month(generateRand(1, 12)));
-        decreaseTimeUnit(new Month(generateRand(1, 12)));
-        decreaseBelowMin(new Month(generateRand(1, 12)));
-
-        increaseTimeUnit(new Day(generateRand(1, 31)));
-        increaseAboveMax(new Day(generateRand(1, 31)));
-        decreaseTimeUnit(new Day(generateRand(1, 31)));
-        decreaseBelowMin(new Day(generateRand(1, 31)));
-
-        increaseTimeUnit(new Hour(generateRand(0, 23)));
-        increaseAboveMax(new Hour(generateRand(0, 23)));
-        decreaseTimeUnit(new Hour(generateRand(0, 23)));
-        decreaseBelowMin(new Hour(generateRand(0, 23)));
+        for (int i = Month.MIN; i <= Month.MAX; i++) {
+            Month month = Month.of(i);
+            int value = generateRand(0, Month.MAX - i);
+            increaseTimeUnit(month, month.plus(value), value);
+            value = generateRand(Month.MAX - i + 1, Month.MAX);
+            increaseAboveMax(month, month.plus(value), value);
+            value = generateRand(0, i - Month.MIN);
+            decreaseTimeUnit(month, month.minus(value), value);
+            value = generateRand(i - Month.MIN + 1, Month.MAX);
+            decreaseBelowMin(month, month.minus(value), value);
+        }
+        for (int i = Day.MIN; i <= Day.MAX; i++) {
+            Day day = Day.of(i);
+            int value = generateRand(0, Day.MAX - i);
+            increaseTimeUnit(day, day.plus(value), value);
+            value = generateRand(Day.MAX - i + 1, Day.MAX);
+            increaseAboveMax(day, day.plus(value), value);
+            value = generateRand(0, i - Day.MIN);
+            decreaseTimeUnit(day, day.minus(value), value);
+            value = generateRand(i - Day.MIN + 1, Day.MAX);
+            decreaseBelowMin(day, day.minus(value), value);
+        }
+        for (int i = Hour.MIN; i <= Hour.MAX; i++) {
+            Hour hour = Hour.of(i);
+            int value = generateRand(0, Hour.MAX - i);
+            increaseTimeUnit(hour, hour.plus(value), value);
+            value = generateRand(Hour.MAX - i + 1, Hour.MAX + 1);
+            increaseAboveMax(hour, hour.plus(value), value);
+            value = generateRand(0, i - Hour.MIN);
+            decreaseTimeUnit(hour, hour.minus(value), value);
+            value = generateRand(i - Hour.MIN + 1, Hour.MAX + 1);
+            decreaseBelowMin(hour, hour.minus(value), value);
+        }
+        for (int i = Minute.MIN; i <= Minute.MAX; i++) {
+            Minute minute = Minute.of(i);
+            int value = generateRand(0, Minute.MAX - i);
+            increaseTimeUnit(minute, minute.plus(value), value);
+            value = generateRand(Minute.MAX - i + 1, Minute.MAX + 1);
+            increaseAboveMax(minute, minute.plus(value), value);
+            value = generateRand(0, i - Minute.MIN);
+            decreaseTimeUnit(minute, minute.minus(value), value);
+            value = generateRand(i - Minute.MIN + 1, Minute.MAX + 1);
+            decreaseBelowMin(minute, minute.minus(value), value);
+        }
+    }
 
-        increaseTimeUnit(new Minute(generateRand(0, 59)));
-        increaseAboveMax(new Minute(generateRand(0, 59)));
-        decreaseTimeUnit(new Minute(generateRand(0, 59)));
-        decreaseBelowMin(new Minute(generateRand(0, 59)));
+    @Test
+    public void testFlyweights() throws Exception {
+        Assert.assertSame(Minute.of(5), Minute.of(5));
+        Assert.assertSame(Hour.of(1), Hour.of(23).plus(2));
+        Assert.assertSame(Month.of(12), Month.of(1).minus(1));
+        Assert.assertEquals(1, Day.of(31).plus(1).getValue());
+        try {
+            Day.of(0);
+            Assert.fail("Didn't throw exception");
+        } catch (Exception ignored) {
+        }
     }
 
     @Test
@@ -78,39 +114,299 @@ public class TimeTest {
         int found;
         int expected;
         Time time = new Time(
-                new Month(5),
-                new Day(5),
-                new Hour(5),
-                new Minute(5)
+                Month.of(5),
+                Day.of(5),
+                Hour.of(5),
+                Minute.of(5)
         );
         found = time.remainingMinutesToReach(new Time(
-                new Month(5),
-                new Day(5),
-                new Hour(5),
-                new Minute(5)
+                Month.of(5),
+                Day.of(5),
+                Hour.of(5),
+                Minute.of(5)
         ));
         expected = 0;
         if (expected != found)
             Assert.fail("Invalid remaining time\nExpected " + expected + "\nFound " + found);
 
         found = time.remainingMinutesToReach(new Time(
-                new Month(5),
-                new Day(5),
-                new Hour(5),
-                new Minute(30)
+                Month.of(5),
+                Day.of(5),
+                Hour.of(5),
+                Minute.of(30)
         ));
         expected = 25;
         if (expected != found)
             Assert.fail("Invalid remaining time\nExpected " + expected + "\nFound " + found);
 
         found = time.remainingMinutesToReach(new Time(
-                new Month(5),
-                new Day(5),
-                new Hour(6),
-                new Minute(0)
+                Month.of(5),
+                Day.of(5),
+                Hour.of(6),
+                Minute.of(0)
         ));
         expected = 55;
         if (expected != found)
             Assert.fail("Invalid remaining time\nExpected " + expected + "\nFound " + found);
     }
+
+    @Test
+    public void testNextExecutionTime() throws Exception {
+        //every 15 minutes in hours 10-12 of days 1 and 15 in months 3 and 9
+        Timer timer = new Timer(
+                (1L) | (1L << 15) | (1L << 30) | (1L << 45),
+                (1 << 10) | (1 << 11) | (1 << 12),
+                (1 << 1) | (1 << 15),
+                (short) ((1 << 3) | (1 << 9))
+        );
+        Assert.assertEquals(0, timer.getNextExecutionTime(3, 1, 10, 0));
+        Assert.assertEquals(14, timer.getNextExecutionTime(3, 1, 10, 1));
+        Assert.assertEquals(1, timer.getNextExecutionTime(3, 1, 12, 44));
+        Assert.assertEquals(14 * 24 * 60 - 2 * 60 - 46, timer.getNextExecutionTime(3, 1, 12, 46));
+        Assert.assertEquals(14 * 24 * 60 - 3 * 60, timer.getNextExecutionTime(3, 1, 13, 0));
+        Assert.assertEquals(10 * 60, timer.getNextExecutionTime(3, 1, 0, 0));
+        Assert.assertEquals((6 * 31 - 14) * 24 * 60 - 3 * 60, timer.getNextExecutionTime(3, 15, 13, 0));
+        //the next execution is in the next year
+        Assert.assertEquals(5 * 31 * 24 * 60 + 10 * 60, timer.getNextExecutionTime(10, 1, 0, 0));
+    }
+
+    @Test
+    public void testCalendarNextExecutionTime() throws Exception {
+        //midnight of the 31st skips the months of 30 days and February
+        Timer lastDay = new Timer(1L, 1, 1 << 31, (short) 0x1FFE);
+        Assert.assertEquals(utc(2024, 3, 31, 0, 0), lastDay.getNextExecutionTime(utc(2024, 2, 1, 0, 0), UTC));
+        Assert.assertEquals(utc(2024, 5, 31, 0, 0), lastDay.getNextExecutionTime(utc(2024, 4, 1, 0, 0), UTC));
+        //the leap day is found 8 years later across 2100 which isn't leap
+        Timer leapDay = new Timer(1L, 1, 1 << 29, (short) (1 << 2));
+        Assert.assertEquals(utc(2028, 2, 29, 0, 0), leapDay.getNextExecutionTime(utc(2024, 3, 1, 0, 0), UTC));
+        Assert.assertEquals(utc(2104, 2, 29, 0, 0), leapDay.getNextExecutionTime(utc(2096, 3, 1, 0, 0), UTC));
+        //the next day of the last hour of February carries to March
+        Timer lateHour = new Timer(1L, 1 << 23, -2, (short) 0x1FFE);
+        Assert.assertEquals(utc(2023, 3, 1, 23, 0), lateHour.getNextExecutionTime(utc(2023, 2, 28, 23, 1), UTC));
+    }
+
+    @Test(expected = Exception.class)
+    public void testImpossibleSchedule() throws Exception {
+        //30th and 31st of February never exist
+        new Timer(1L, 1, (1 << 30) | (1 << 31), (short) (1 << 2));
+    }
+
+    /**
+     * compare the timer against a brute force search walking the calendar of java.time field by field,
+     * for random schedules biased to the ends of the months and random times
+     */
+    @Test
+    public void testNextExecutionTimeAgainstBruteForce() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 3000; i++) {
+            long seconds = randomMask(random, 0, 59);
+            long minutes = randomMask(random, 0, 59);
+            int hours = (int) randomMask(random, 0, 23);
+            int days = random.nextBoolean() ? (int) randomMask(random, 28, 31) : (int) randomMask(random, 1, 31);
+            short months = (short) randomMask(random, 1, 12);
+            Timer timer;
+            try {
+                timer = new Timer(seconds, minutes, hours, days, months);
+            } catch (Exception e) {
+                continue;
+            }
+            long from = utc(1990, 1, 1, 0, 0) + (long) (random.nextDouble() * 150 * 365 * 86_400_000L);
+            long expected = bruteForce(seconds, minutes, hours, days, months, from);
+            Assert.assertEquals("Schedule " + Long.toBinaryString(minutes) + " " + Integer.toBinaryString(hours) +
+                    " " + Integer.toBinaryString(days) + " " + Integer.toBinaryString(months) + " from " + from,
+                    expected, timer.getNextExecutionTime(from, UTC));
+        }
+    }
+
+    @Test
+    public void testDaysOfWeek() throws Exception {
+        //9:00 of the weekdays, 2024-03-08 is a Friday
+        Timer weekdays = new Timer(1L, 1L, 1 << 9, Timer.DAYS, (short) 0x1FFE, 0x3EL);
+        Assert.assertEquals(utc(2024, 3, 11, 9, 0), weekdays.getNextExecutionTime(utc(2024, 3, 8, 9, 1), UTC));
+        //the 13th or the Fridays
+        Timer thirteenth = new Timer(1L, 1L, 1, 1L << 13, (short) 0x1FFE, 1L << 5 | Timer.EITHER_DAY);
+        Assert.assertEquals(utc(2024, 3, 13, 0, 0), thirteenth.getNextExecutionTime(utc(2024, 3, 9, 0, 0), UTC));
+        Assert.assertEquals(utc(2024, 3, 15, 0, 0), thirteenth.getNextExecutionTime(utc(2024, 3, 13, 0, 1), UTC));
+        //the last Friday, the second Monday, the last day and the last weekday of March 2024
+        long fridayL = 1L << Timer.LAST_WEEK_DAY_SHIFT + 5;
+        Assert.assertEquals(utc(2024, 3, 29, 0, 0), new Timer(1L, 1L, 1, Timer.DAYS, (short) (1 << 3), fridayL)
+                .getNextExecutionTime(utc(2024, 3, 1, 0, 0), UTC));
+        long secondMonday = 1L << Timer.NTH_WEEK_DAY_SHIFT + 7 + 1;
+        Assert.assertEquals(utc(2024, 3, 11, 0, 0), new Timer(1L, 1L, 1, Timer.DAYS, (short) (1 << 3), secondMonday)
+                .getNextExecutionTime(utc(2024, 3, 1, 0, 0), UTC));
+        Assert.assertEquals(utc(2024, 3, 31, 0, 0), new Timer(1L, 1L, 1, Timer.LAST_DAY, (short) (1 << 3), Timer.WEEK_DAYS)
+                .getNextExecutionTime(utc(2024, 3, 1, 0, 0), UTC));
+        Assert.assertEquals(utc(2024, 3, 29, 0, 0), new Timer(1L, 1L, 1, Timer.LAST_WEEKDAY, (short) (1 << 3), Timer.WEEK_DAYS)
+                .getNextExecutionTime(utc(2024, 3, 1, 0, 0), UTC));
+        //the 1st of June 2024 is a Saturday, its nearest weekday in June is Monday the 3rd
+        long firstW = 1L << Timer.NEAREST_WEEKDAY_SHIFT + 1;
+        Assert.assertEquals(utc(2024, 6, 3, 0, 0), new Timer(1L, 1L, 1, firstW, (short) (1 << 6), Timer.WEEK_DAYS)
+                .getNextExecutionTime(utc(2024, 6, 1, 0, 0), UTC));
+        //without the flag the day must match both, the 13th of September 2024 is the next Friday the 13th
+        Assert.assertEquals(utc(2024, 9, 13, 0, 0), new Timer(1L, 1L, 1, 1L << 13, (short) 0x1FFE, 1L << 5)
+                .getNextExecutionTime(utc(2024, 3, 1, 0, 0), UTC));
+        //all the days of week allow every day, whatever the days are
+        Assert.assertEquals(utc(2024, 3, 2, 0, 0), new Timer(1L, 1L, 1, 1L << 13, (short) 0x1FFE,
+                Timer.WEEK_DAYS | Timer.EITHER_DAY).getNextExecutionTime(utc(2024, 3, 1, 0, 1), UTC));
+        //the fifth Monday of February exists only in leap years starting February at a Monday
+        long fifthMonday = 1L << Timer.NTH_WEEK_DAY_SHIFT + 28 + 1;
+        Assert.assertEquals(utc(2044, 2, 29, 0, 0), new Timer(1L, 1L, 1, Timer.DAYS, (short) (1 << 2), fifthMonday)
+                .getNextExecutionTime(utc(2024, 3, 1, 0, 0), UTC));
+    }
+
+    /**
+     * compare the days of week and the L, W and # days against a brute force search checking each day with java.time
+     */
+    @Test
+    public void testDaysOfWeekAgainstBruteForce() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            long days = random.nextInt(3) == 0 ? Timer.DAYS : randomMask(random, 1, 31);
+            if (random.nextBoolean()) days |= random.nextBoolean() ? Timer.LAST_DAY : Timer.LAST_WEEKDAY;
+            if (random.nextBoolean()) days |= 1L << Timer.NEAREST_WEEKDAY_SHIFT + 1 + random.nextInt(31);
+            long daysOfWeek = random.nextInt(3) == 0 ? Timer.WEEK_DAYS : randomMask(random, 0, 6);
+            if (random.nextBoolean()) daysOfWeek |= 1L << Timer.LAST_WEEK_DAY_SHIFT + random.nextInt(7);
+            if (random.nextBoolean()) daysOfWeek |= 1L << Timer.NTH_WEEK_DAY_SHIFT + random.nextInt(35);
+            if (random.nextBoolean()) daysOfWeek |= Timer.EITHER_DAY;
+            short months = (short) randomMask(random, 1, 12);
+            Timer timer;
+            try {
+                timer = new Timer(1L, 1L, 1, days, months, daysOfWeek);
+            } catch (Exception e) {
+                continue;
+            }
+            LocalDate from = LocalDate.of(1990, 1, 1).plusDays(random.nextInt(150 * 365));
+            LocalDate expected = from;
+            while (!matches(days, months, daysOfWeek, expected)) expected = expected.plusDays(1);
+            Assert.assertEquals("Schedule " + Long.toBinaryString(days) + " " + Integer.toBinaryString(months) +
+                            " " + Long.toBinaryString(daysOfWeek) + " from " + from,
+                    expected.toEpochDay() * 86_400_000L,
+                    timer.getNextExecutionTime(from.toEpochDay() * 86_400_000L, UTC));
+        }
+    }
+
+    private static boolean matches(long days, short months, long daysOfWeek, LocalDate date) {
+        if ((months & 1 << date.getMonthValue()) == 0) return false;
+        int day = date.getDayOfMonth();
+        int length = date.lengthOfMonth();
+        boolean byDay = (days & 1L << day) != 0 || (days & Timer.LAST_DAY) != 0 && day == length ||
+                (days & Timer.LAST_WEEKDAY) != 0 && day == nearestWeekday(date.withDayOfMonth(length)).getDayOfMonth();
+        for (int n = 1; n <= length; n++)
+            if ((days & 1L << Timer.NEAREST_WEEKDAY_SHIFT + n) != 0 && nearestWeekday(date.withDayOfMonth(n)).equals(date))
+                byDay = true;
+        int weekDay = date.getDayOfWeek().getValue() % 7;
+        boolean byWeekDay = (daysOfWeek & 1L << weekDay) != 0 ||
+                (daysOfWeek & 1L << Timer.LAST_WEEK_DAY_SHIFT + weekDay) != 0 && date.plusWeeks(1).getMonthValue() != date.getMonthValue() ||
+                (daysOfWeek & 1L << Timer.NTH_WEEK_DAY_SHIFT + 7 * ((day - 1) / 7) + weekDay) != 0;
+        return (daysOfWeek & Timer.EITHER_DAY) != 0 ? byDay || byWeekDay : byDay && byWeekDay;
+    }
+
+    private static LocalDate nearestWeekday(LocalDate date) {
+        switch (date.getDayOfWeek()) {
+            case SATURDAY:
+                return date.getDayOfMonth() == 1 ? date.plusDays(2) : date.minusDays(1);
+            case SUNDAY:
+                return date.getDayOfMonth() == date.lengthOfMonth() ? date.minusDays(2) : date.plusDays(1);
+            default:
+                return date;
+        }
+    }
+
+    private static long randomMask(Random random, int min, int max) {
+        long mask = 0;
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) mask |= 1L << (min + random.nextInt(max - min + 1));
+        return mask;
+    }
+
+    private static long bruteForce(long seconds, long minutes, int hours, int days, short months, long from) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(Math.floorDiv(from + 999, 1000), 0, ZoneOffset.UTC);
+        while (true) {
+            if ((months & 1 << time.getMonthValue()) == 0) {
+                time = time.withDayOfMonth(1).toLocalDate().atStartOfDay().plusMonths(1);
+            } else if ((days & 1 << time.getDayOfMonth()) == 0) {
+                time = time.toLocalDate().atStartOfDay().plusDays(1);
+            } else if ((hours & 1 << time.getHour()) == 0) {
+                time = time.withMinute(0).withSecond(0).plusHours(1);
+            } else if ((minutes & 1L << time.getMinute()) == 0) {
+                time = time.withSecond(0).plusMinutes(1);
+            } else if ((seconds & 1L << time.getSecond()) == 0) {
+                time = time.plusSeconds(1);
+            } else {
+                return time.toEpochSecond(ZoneOffset.UTC) * 1000;
+            }
+        }
+    }
+
+    private static long utc(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).toEpochSecond(ZoneOffset.UTC) * 1000;
+    }
+
+    @Test
+    public void testZoneTransitions() throws Exception {
+        ZoneId berlin = ZoneId.of("Europe/Berlin");
+        //02:30 every day
+        Timer timer = new Timer(1L << 30, 1 << 2, -2, (short) 0x1FFE);
+        //the clocks jump from 02:00 to 03:00, 02:30 doesn't exist
+        long gapDay = instant(2024, 3, 31, 0, 0, "+01:00");
+        Assert.assertEquals(instant(2024, 3, 31, 3, 0, "+02:00"), timer.getNextExecutionTime(gapDay,
+                new ZonePolicy(berlin, DstGapPolicy.FIRE_AFTER_GAP, DstOverlapPolicy.FIRE_FIRST)));
+        Assert.assertEquals(instant(2024, 4, 1, 2, 30, "+02:00"), timer.getNextExecutionTime(gapDay,
+                new ZonePolicy(berlin, DstGapPolicy.SKIP, DstOverlapPolicy.FIRE_FIRST)));
+        //the clocks go back from 03:00 to 02:00, 02:30 happens twice
+        long overlapDay = instant(2024, 10, 27, 0, 0, "+02:00");
+        long first = instant(2024, 10, 27, 2, 30, "+02:00");
+        long second = instant(2024, 10, 27, 2, 30, "+01:00");
+        long nextDay = instant(2024, 10, 28, 2, 30, "+01:00");
+        ZonePolicy fireFirst = new ZonePolicy(berlin, DstGapPolicy.FIRE_AFTER_GAP, DstOverlapPolicy.FIRE_FIRST);
+        Assert.assertEquals(first, timer.getNextExecutionTime(overlapDay, fireFirst));
+        Assert.assertEquals(nextDay, timer.getNextExecutionTime(first + 1, fireFirst));
+        ZonePolicy fireSecond = new ZonePolicy(berlin, DstGapPolicy.FIRE_AFTER_GAP, DstOverlapPolicy.FIRE_SECOND);
+        Assert.assertEquals(second, timer.getNextExecutionTime(overlapDay, fireSecond));
+        Assert.assertEquals(nextDay, timer.getNextExecutionTime(second + 1, fireSecond));
+        ZonePolicy fireBoth = new ZonePolicy(berlin, DstGapPolicy.FIRE_AFTER_GAP, DstOverlapPolicy.FIRE_BOTH);
+        Assert.assertEquals(first, timer.getNextExecutionTime(overlapDay, fireBoth));
+        Assert.assertEquals(second, timer.getNextExecutionTime(first + 1, fireBoth));
+        Assert.assertEquals(nextDay, timer.getNextExecutionTime(second + 1, fireBoth));
+
+        //the tables are cached by year, a search in another year doesn't replace the table of this one
+        ZoneTransitions table = ZoneTransitions.of(berlin, overlapDay);
+        ZoneTransitions later = ZoneTransitions.of(berlin, utc(2031, 6, 1, 0, 0));
+        Assert.assertNotSame(table, later);
+        Assert.assertSame(table, ZoneTransitions.of(berlin, gapDay));
+        Assert.assertSame(later, table.around(utc(2031, 6, 1, 0, 0)));
+    }
+
+    /**
+     * every 20 minutes across the transitions of the current and the next year [the cached tables] of a few zones,
+     * the fires are compared with java.time outside the gaps and the overlaps
+     */
+    @Test
+    public void testZonesAgainstJavaTime() throws Exception {
+        Timer timer = new Timer(1L, 1L | 1L << 20 | 1L << 40, (1 << 24) - 1, -2, (short) 0x1FFE);
+        for (String id : new String[]{"Europe/Berlin", "America/New_York", "Australia/Sydney", "Asia/Kolkata"}) {
+            ZoneId zone = ZoneId.of(id);
+            ZonePolicy policy = new ZonePolicy(zone, DstGapPolicy.SKIP, DstOverlapPolicy.FIRE_FIRST);
+            int year = Year.now(zone).getValue();
+            ZonedDateTime time = LocalDateTime.of(year, 1, 1, 0, 0).atZone(zone);
+            ZonedDateTime end = LocalDateTime.of(year + 2, 1, 1, 0, 0).atZone(zone);
+            long fire = timer.getNextExecutionTime(time.toInstant().toEpochMilli(), policy);
+            while (time.isBefore(end)) {
+                ZoneOffsetTransition transition = zone.getRules().getTransition(time.toLocalDateTime());
+                if (transition == null) {
+                    Assert.assertEquals(id + " " + time, time.toInstant().toEpochMilli(), fire);
+                    fire = timer.getNextExecutionTime(fire + 1, policy);
+                } else if (transition.isOverlap() && time.getOffset().equals(transition.getOffsetBefore())) {
+                    //the first occurrence is fired, the second one isn't
+                    Assert.assertEquals(id + " " + time, time.toInstant().toEpochMilli(), fire);
+                    fire = timer.getNextExecutionTime(fire + 1, policy);
+                }
+                time = time.plusMinutes(20);
+            }
+        }
+    }
+
+    private static long instant(int year, int month, int day, int hour, int minute, String offset) {
+        return LocalDateTime.of(year, month, day, hour, minute).toEpochSecond(ZoneOffset.of(offset)) * 1000;
+    }
 }